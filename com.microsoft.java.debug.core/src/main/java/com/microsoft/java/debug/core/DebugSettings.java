@@ -35,6 +35,10 @@ public final class DebugSettings {
     public boolean showHex = false;
     public boolean showLogicalStructure = true;
     public boolean showToString = true;
+    public int toStringTimeBudget = 1000;
+    public int evaluationTimeout = 30000;
+    public int variablesCacheSize = 1000;
+    public boolean stableVariablesReferences = false;
     public String logLevel;
     public String javaHome;
     public HotCodeReplace hotCodeReplace = HotCodeReplace.MANUAL;
@@ -46,6 +50,7 @@ public final class DebugSettings {
     public AsyncMode asyncJDWP = AsyncMode.OFF;
     public Switch debugSupportOnDecompiledSource = Switch.OFF;
     public boolean suspendAllThreads = false;
+    public ReturnValueCapture returnValueCapture = ReturnValueCapture.ALWAYS;
 
     public static DebugSettings getCurrent() {
         return current;
@@ -99,6 +104,15 @@ public final class DebugSettings {
         OFF
     }
 
+    public static enum ReturnValueCapture {
+        @SerializedName("off")
+        OFF,
+        @SerializedName("stepOut")
+        STEP_OUT,
+        @SerializedName("always")
+        ALWAYS
+    }
+
     public static enum Switch {
         @SerializedName("on")
         ON,
@@ -29,10 +29,12 @@ import com.microsoft.java.debug.core.adapter.handler.DisconnectRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.DisconnectRequestWithoutDebuggingHandler;
 import com.microsoft.java.debug.core.adapter.handler.EvaluateRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.ExceptionInfoRequestHandler;
+import com.microsoft.java.debug.core.adapter.handler.HeapQueryRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.HotCodeReplaceHandler;
 import com.microsoft.java.debug.core.adapter.handler.InitializeRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.InlineValuesRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.LaunchRequestHandler;
+import com.microsoft.java.debug.core.adapter.handler.MonitorAnalysisRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.ProcessIdHandler;
 import com.microsoft.java.debug.core.adapter.handler.RefreshFramesHandler;
 import com.microsoft.java.debug.core.adapter.handler.RefreshVariablesHandler;
@@ -47,6 +49,7 @@ import com.microsoft.java.debug.core.adapter.handler.SourceRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.StackTraceRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.StepInTargetsRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.StepRequestHandler;
+import com.microsoft.java.debug.core.adapter.handler.ThreadDumpRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.ThreadsRequestHandler;
 import com.microsoft.java.debug.core.adapter.handler.VariablesRequestHandler;
 import com.microsoft.java.debug.core.protocol.IProtocolServer;
@@ -135,6 +138,9 @@ public class DebugAdapter implements IDebugAdapter {
         registerHandlerForDebug(new BreakpointLocationsRequestHander());
         registerHandlerForDebug(new StepInTargetsRequestHandler());
         registerHandlerForDebug(new RefreshFramesHandler());
+        registerHandlerForDebug(new HeapQueryRequestHandler());
+        registerHandlerForDebug(new MonitorAnalysisRequestHandler());
+        registerHandlerForDebug(new ThreadDumpRequestHandler());
 
         // NO_DEBUG mode only
         registerHandlerForNoDebug(new DisconnectRequestWithoutDebuggingHandler());
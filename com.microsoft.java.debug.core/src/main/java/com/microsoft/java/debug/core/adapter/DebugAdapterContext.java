@@ -24,8 +24,10 @@ import com.microsoft.java.debug.core.IDebugSession;
 import com.microsoft.java.debug.core.DebugSettings.AsyncMode;
 import com.microsoft.java.debug.core.adapter.variables.IVariableFormatter;
 import com.microsoft.java.debug.core.adapter.variables.VariableFormatterFactory;
+import com.microsoft.java.debug.core.adapter.variables.VariableProxy;
 import com.microsoft.java.debug.core.protocol.IProtocolServer;
 import com.microsoft.java.debug.core.protocol.Requests.StepFilters;
+import com.sun.jdi.ObjectReference;
 
 import org.apache.commons.lang3.ArrayUtils;
 
@@ -65,7 +67,7 @@ public class DebugAdapterContext implements IDebugAdapterContext {
     private long jdwpLatency = 0;
 
     private IdCollection<String> sourceReferences = new IdCollection<>();
-    private RecyclableObjectPool<Long, Object> recyclableIdPool = new RecyclableObjectPool<>();
+    private RecyclableObjectPool<Long, Object> recyclableIdPool = new RecyclableObjectPool<>(DebugAdapterContext::hasStableId);
     private IVariableFormatter variableFormatter = VariableFormatterFactory.createVariableFormatter();
 
     private IStackFrameManager stackFrameManager = new StackFrameManager();
@@ -73,6 +75,7 @@ public class DebugAdapterContext implements IDebugAdapterContext {
     private IBreakpointManager breakpointManager = new BreakpointManager();
     private IStepResultManager stepResultManager = new StepResultManager();
     private ThreadCache threadCache = new ThreadCache();
+    private VariablesCache variablesCache = new VariablesCache();
 
     public DebugAdapterContext(IProtocolServer server, IProviderContext providerContext) {
         this.providerContext = providerContext;
@@ -372,6 +375,11 @@ public class DebugAdapterContext implements IDebugAdapterContext {
         return this.threadCache;
     }
 
+    @Override
+    public VariablesCache getVariablesCache() {
+        return this.variablesCache;
+    }
+
     @Override
     public boolean asyncJDWP() {
         /**
@@ -418,4 +426,13 @@ public class DebugAdapterContext implements IDebugAdapterContext {
     public void setInitialized(boolean isInitialized) {
         this.isInitialized = isInitialized;
     }
+
+    /**
+     * The object-backed variables keep their variablesReference across steps, so that the client
+     * can keep the expanded state of them.
+     */
+    private static boolean hasStableId(Object object) {
+        return DebugSettings.getCurrent().stableVariablesReferences && object instanceof VariableProxy
+            && ((VariableProxy) object).getProxiedVariable() instanceof ObjectReference;
+    }
 }
@@ -33,6 +33,10 @@ public enum ErrorCode {
     RESTARTFRAME_FAILURE(1016),
     COMPLETIONS_FAILURE(1017),
     EXCEPTION_INFO_FAILURE(1018),
+    HEAP_QUERY_FAILURE(1019),
+    MONITOR_ANALYSIS_FAILURE(1020),
+    THREAD_DUMP_FAILURE(1021),
+    EVALUATION_TIMEOUT(1022),
     EVALUATION_COMPILE_ERROR(2001),
     EVALUATE_NOT_SUSPENDED_THREAD(2002),
     HCR_FAILURE(3001),
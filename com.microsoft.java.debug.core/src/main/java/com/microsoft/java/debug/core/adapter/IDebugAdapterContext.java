@@ -143,6 +143,8 @@ public interface IDebugAdapterContext {
 
     ThreadCache getThreadCache();
 
+    VariablesCache getVariablesCache();
+
     boolean asyncJDWP();
 
     boolean asyncJDWP(long usableLatency/**ms*/);
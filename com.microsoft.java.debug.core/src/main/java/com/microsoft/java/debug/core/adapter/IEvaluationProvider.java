@@ -11,7 +11,9 @@
 
 package com.microsoft.java.debug.core.adapter;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import com.microsoft.java.debug.core.IEvaluatableBreakpoint;
 import com.sun.jdi.ObjectReference;
@@ -42,6 +44,31 @@ public interface IEvaluationProvider extends IProvider {
      */
     CompletableFuture<Value> evaluate(String expression, ThreadReference thread, int depth);
 
+    /**
+     * Evaluate a group of expressions in the context of the same stack frame, e.g. the watch expressions refreshed after a step.
+     * The implementation is supposed to resolve the stack frame once and run the evaluations one after another in the suspended
+     * thread. The default implementation evaluates each expression separately.
+     *
+     * @param expressions The expressions to be evaluated
+     * @param thread The suspended thread the evaluations will be executed at
+     * @param depth The stack frame depth in the suspended thread
+     * @return the evaluation result futures, in the same order as the expressions
+     */
+    default List<CompletableFuture<Value>> evaluate(List<String> expressions, ThreadReference thread, int depth) {
+        return expressions.stream().map(expression -> evaluate(expression, thread, depth)).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns whether the expression only reads the local variables, the fields and the array elements, i.e. evaluating
+     * it invokes no method and changes no state of the debuggee, so its result can be reused while the VM stays suspended.
+     *
+     * @param expression The expression to be checked
+     * @return true if the expression is known to be free of side effects
+     */
+    default boolean isSideEffectFree(String expression) {
+        return false;
+    }
+
     /**
      * Evaluate the expression in the context of the specified 'this' object, return the promise which is to be resolved/rejected when
      * the evaluation finishes.
@@ -12,12 +12,14 @@
 package com.microsoft.java.debug.core.adapter;
 
 import java.util.HashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Maps the values to the int ids. The id to value lookups go to an int keyed table without boxing, and the ids are
+ * generation tagged, so the ids handed out before {@link #reset()} never resolve to the values created after it.
+ */
 public class IdCollection<T> {
-    private int startId;
-    private AtomicInteger nextId;
-    private HashMap<Integer, T> idMap;
+    private IdGenerator idGenerator;
+    private IntObjectMap<T> idMap;
     private HashMap<T, Integer> reverseMap;
 
     public IdCollection() {
@@ -30,17 +32,16 @@ public class IdCollection<T> {
      *              the start id number
      */
     public IdCollection(int startId) {
-        this.startId = startId;
-        this.nextId = new AtomicInteger(startId);
-        this.idMap = new HashMap<>();
+        this.idGenerator = new IdGenerator(startId);
+        this.idMap = new IntObjectMap<>();
         this.reverseMap = new HashMap<>();
     }
 
     /**
-     * Reset the id to the initial start number.
+     * Reset the id to the initial start number of a new generation.
      */
     public void reset() {
-        this.nextId.set(this.startId);
+        this.idGenerator.nextGeneration();
         this.idMap.clear();
         this.reverseMap.clear();
     }
@@ -50,10 +51,15 @@ public class IdCollection<T> {
      * Otherwise return the existing id.
      */
     public int create(T value) {
-        if (this.reverseMap.containsKey(value)) {
-            return this.reverseMap.get(value);
+        Integer existingId = this.reverseMap.get(value);
+        if (existingId != null) {
+            return existingId;
+        }
+        int id = this.idGenerator.next();
+        // The generation wraps around after a very long session, skip the ids still in use.
+        while (this.idMap.get(id) != null) {
+            id = this.idGenerator.next();
         }
-        int id = this.nextId.getAndIncrement();
         this.idMap.put(id, value);
         this.reverseMap.put(value, id);
         return id;
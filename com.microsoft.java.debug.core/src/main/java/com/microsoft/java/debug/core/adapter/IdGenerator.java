@@ -0,0 +1,77 @@
+/*******************************************************************************
+* Copyright (c) 2026 Microsoft Corporation and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*     Microsoft Corporation - initial API and implementation
+*******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter;
+
+/**
+ * Generates the generation tagged ids. The low bits of an id are the sequence within the generation, and the
+ * high bits are the generation. Starting a new generation restarts the sequence but yields different ids, so a
+ * stale id kept by the client from an earlier generation is not resolved to a new object.
+ * It is not thread-safe.
+ */
+final class IdGenerator {
+    static final int SEQUENCE_BITS = 24;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+    // Keep the ids positive.
+    private static final int GENERATION_MASK = (1 << (Integer.SIZE - 1 - SEQUENCE_BITS)) - 1;
+
+    private final int startId;
+    private int generation = 0;
+    // Whether the generations have wrapped around, then all the other generations have been issued.
+    private boolean wrapped = false;
+    private int nextSequence;
+
+    IdGenerator(int startId) {
+        if (startId < 0 || startId > MAX_SEQUENCE) {
+            throw new IllegalArgumentException("startId is out of range.");
+        }
+        this.startId = startId;
+        this.nextSequence = startId;
+    }
+
+    /**
+     * Returns the next id, a new generation is started when the sequence is exhausted.
+     */
+    int next() {
+        if (nextSequence > MAX_SEQUENCE) {
+            nextGeneration();
+        }
+        return (generation << SEQUENCE_BITS) | nextSequence++;
+    }
+
+    /**
+     * Starts a new generation and restarts the sequence.
+     */
+    void nextGeneration() {
+        generation = (generation + 1) & GENERATION_MASK;
+        wrapped |= generation == 0;
+        nextSequence = startId;
+    }
+
+    /**
+     * Returns whether the id has been handed out, i.e. it belongs to an earlier generation or its sequence
+     * has been passed in the current generation. The ids of the generations not started yet are not issued.
+     */
+    boolean isIssued(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int sequence = id & MAX_SEQUENCE;
+        if (sequence < startId) {
+            return false;
+        }
+        int idGeneration = id >>> SEQUENCE_BITS;
+        if (idGeneration != generation) {
+            return wrapped || idGeneration < generation;
+        }
+        return sequence < nextSequence;
+    }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+* Copyright (c) 2026 Microsoft Corporation and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*     Microsoft Corporation - initial API and implementation
+*******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter;
+
+import java.util.Arrays;
+
+/**
+ * An int keyed hash map with open addressing (linear probing), so the lookups don't box the keys.
+ * It is not thread-safe.
+ *
+ * @param <V> the value type
+ */
+final class IntObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int shift;
+
+    IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), DEFAULT_CAPACITY) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the key, or <code>null</code> if the key is absent.
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Object[] values = this.values;
+        int[] keys = this.keys;
+        for (int index = slot(key); values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return (V) values[index];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Associates the value with the key and returns the previous value, if any.
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null value cannot be added.");
+        }
+
+        int index = slot(key);
+        for (; values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        if (++size > (int) (values.length * LOAD_FACTOR)) {
+            rehash(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the key and returns its value, or <code>null</code> if the key is absent.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int index = slot(key);
+        for (; values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                shiftBack(index);
+                size--;
+                return previous;
+            }
+        }
+
+        return null;
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Fills the hole at the specified index with the following entries of the same probe sequence,
+     * so the lookups don't need the tombstones.
+     */
+    private void shiftBack(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == null) {
+                break;
+            }
+
+            int home = slot(keys[index]);
+            // Move the entry if its home slot is not in the cyclic range (hole, index].
+            if (hole <= index ? (home <= hole || home > index) : (home <= hole && home > index)) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+        }
+
+        values[hole] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = slot(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    private int slot(int key) {
+        // Fibonacci hashing, spreads both the sequential ids and the strided ids of a lock stripe.
+        return (key * 0x9E3779B9) >>> shift;
+    }
+}
@@ -11,12 +11,11 @@
 
 package com.microsoft.java.debug.core.adapter;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * An utility object pool class with the following  ability:
@@ -28,13 +27,46 @@ import java.util.Set;
  * <p>It is thread-safe, the duplicate object will not be stored, an object can be referenced by multiple owners, it is
  * removed only when user explicitly calls removeObjectById or all the owners has been removed.</p>
  *
+ * <p>Optionally, the ids of the recycled objects accepted by the stable id filter are remembered, and an equal
+ * object added later gets the same id back if it's still free.</p>
+ *
+ * <p>The id to object lookups are served by lock striped int keyed tables, so they only contend with the
+ * updates of the same stripe rather than waiting for a whole recycle to complete. The objects are also indexed
+ * by owner, so recycling the objects of an owner only visits the objects it owns. The ids are generation tagged,
+ * the ids handed out before removeAllObjects are never reused for the new objects.</p>
+ *
  * @param <O> the owner class type
  * @param <V> the object type
  */
 public class RecyclableObjectPool<O, V> {
-    private final IdCollection<V> objectCollection = new IdCollection<>();
-    private final Map<V, Set<O>> referenceMap = new HashMap<>();
-    private final Map<V, Integer> objectIdMap = new HashMap<>();
+    private static final int MAX_RETIRED_IDS = 10000;
+    private static final int STRIPES = 16;
+    private static final int START_ID = 1;
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private final IntObjectMap<V>[] stripes = new IntObjectMap[STRIPES];
+    // The fields below are guarded by this pool.
+    private final Map<V, PooledObject<O>> objectMap = new HashMap<>();
+    private final Map<O, Set<V>> ownerIndex = new HashMap<>();
+    private final Map<V, Integer> retiredIdMap = new LRUCache<>(MAX_RETIRED_IDS);
+    private final Predicate<V> stableIdFilter;
+    private final IdGenerator idGenerator = new IdGenerator(START_ID);
+
+    public RecyclableObjectPool() {
+        this(null);
+    }
+
+    /**
+     * Constructs an object pool which keeps the ids stable for the objects accepted by the filter.
+     * @param stableIdFilter
+     *              the filter of the objects whose ids are kept after being recycled, null means none.
+     */
+    public RecyclableObjectPool(Predicate<V> stableIdFilter) {
+        this.stableIdFilter = stableIdFilter;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new IntObjectMap<>();
+        }
+    }
 
     /**
      * Add an object into this pool, if the object is already added, the original id will be used, it will also create a
@@ -52,19 +84,23 @@ public class RecyclableObjectPool<O, V> {
             throw new IllegalArgumentException("Null object cannot be added.");
         }
         synchronized (this) {
-            if (!referenceMap.containsKey(object)) {
+            PooledObject<O> pooled = objectMap.get(object);
+            if (pooled == null) {
                 // the object is new
-                Set<O> owners = new HashSet<>(1);
-                owners.add(owner);
-                referenceMap.put(object, owners);
-                int id = objectCollection.create(object);
-                objectIdMap.put(object, id);
-                return id;
-            } else {
-                // the object is already in this pool
-                referenceMap.get(object).add(owner);
-                return objectIdMap.get(object);
+                Integer retiredId = retiredIdMap.remove(object);
+                int id = (retiredId != null && getObjectById(retiredId) == null) ? retiredId : nextFreeId();
+                pooled = new PooledObject<>(id);
+                objectMap.put(object, pooled);
+                IntObjectMap<V> stripe = stripeOf(id);
+                synchronized (stripe) {
+                    stripe.put(id, object);
+                }
             }
+
+            if (pooled.owners.add(owner)) {
+                ownerIndex.computeIfAbsent(owner, key -> new HashSet<>()).add(object);
+            }
+            return pooled.id;
         }
     }
 
@@ -75,8 +111,9 @@ public class RecyclableObjectPool<O, V> {
      * @return the object, null if the object cannot be found.
      */
     public V getObjectById(int id) {
-        synchronized (this) {
-            return objectCollection.get(id);
+        IntObjectMap<V> stripe = stripeOf(id);
+        synchronized (stripe) {
+            return stripe.get(id);
         }
     }
 
@@ -88,12 +125,23 @@ public class RecyclableObjectPool<O, V> {
      */
     public boolean removeObjectById(int id) {
         synchronized (this) {
-            V object = this.objectCollection.remove(id);
+            IntObjectMap<V> stripe = stripeOf(id);
+            V object;
+            synchronized (stripe) {
+                object = stripe.remove(id);
+            }
             if (object == null)  {
                 return false;
             }
-            referenceMap.remove(object);
-            objectIdMap.remove(object);
+
+            PooledObject<O> pooled = objectMap.remove(object);
+            for (O owner : pooled.owners) {
+                Set<V> owned = ownerIndex.get(owner);
+                owned.remove(object);
+                if (owned.isEmpty()) {
+                    ownerIndex.remove(owner);
+                }
+            }
             return true;
         }
     }
@@ -109,19 +157,30 @@ public class RecyclableObjectPool<O, V> {
             throw new IllegalArgumentException("owner cannot be null.");
         }
         synchronized (this) {
-            List<V> recycling = new ArrayList<>();
-            referenceMap.forEach((key, value) -> {
-                if (value.remove(owner)) {
-                    if (value.isEmpty()) {
-                        recycling.add(key);
-                    }
+            Set<V> owned = ownerIndex.remove(owner);
+            if (owned == null) {
+                return false;
+            }
+
+            boolean recycled = false;
+            for (V object : owned) {
+                PooledObject<O> pooled = objectMap.get(object);
+                pooled.owners.remove(owner);
+                if (!pooled.owners.isEmpty()) {
+                    continue;
                 }
-            });
-            for (V recycled : recycling) {
-                this.objectCollection.remove(objectIdMap.remove(recycled));
-                referenceMap.remove(recycled);
+
+                objectMap.remove(object);
+                IntObjectMap<V> stripe = stripeOf(pooled.id);
+                synchronized (stripe) {
+                    stripe.remove(pooled.id);
+                }
+                if (stableIdFilter != null && stableIdFilter.test(object)) {
+                    retiredIdMap.put(object, pooled.id);
+                }
+                recycled = true;
             }
-            return !recycling.isEmpty();
+            return recycled;
         }
     }
 
@@ -130,9 +189,47 @@ public class RecyclableObjectPool<O, V> {
      */
     public void removeAllObjects() {
         synchronized (this) {
-            this.objectCollection.reset();
-            this.referenceMap.clear();
-            this.objectIdMap.clear();
+            for (IntObjectMap<V> stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.clear();
+                }
+            }
+            this.objectMap.clear();
+            this.ownerIndex.clear();
+            this.retiredIdMap.clear();
+            this.idGenerator.nextGeneration();
+        }
+    }
+
+    /**
+     * Returns whether the id was handed out but its object has been removed since, e.g. a stale reference
+     * kept by the client after the owner thread resumed.
+     */
+    public boolean isStale(int id) {
+        synchronized (this) {
+            return id > 0 && idGenerator.isIssued(id) && getObjectById(id) == null;
+        }
+    }
+
+    private int nextFreeId() {
+        int id = idGenerator.next();
+        // The generation wraps around after a very long session, skip the ids still in use.
+        while (getObjectById(id) != null) {
+            id = idGenerator.next();
+        }
+        return id;
+    }
+
+    private IntObjectMap<V> stripeOf(int id) {
+        return stripes[id & (STRIPES - 1)];
+    }
+
+    private static class PooledObject<O> {
+        final int id;
+        final Set<O> owners = new HashSet<>(1);
+
+        PooledObject(int id) {
+            this.id = id;
         }
     }
 }
@@ -13,6 +13,7 @@ package com.microsoft.java.debug.core.adapter;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -20,12 +21,25 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.sun.jdi.ThreadReference;
 
+/**
+ * Tracks the threads of the debuggee. The threads are indexed by uniqueID, the platform threads are
+ * seeded from VirtualMachine.allThreads() and then maintained by the ThreadStartEvent/ThreadDeathEvent,
+ * so the lookups neither lock nor scan. The visible threads are served from an immutable snapshot which
+ * is only rebuilt after the thread set changes. The thread names are cached from the ThreadStartEvent or
+ * the first threads request, and refreshed lazily after the threads resume.
+ */
 public class ThreadCache {
-    private List<ThreadReference> allThreads = new ArrayList<>();
-    private Map<Long, String> threadNameMap = new ConcurrentHashMap<>();
+    private static final Comparator<ThreadReference> BY_ID = Comparator.comparingLong(ThreadReference::uniqueID);
+
+    private final Map<Long, ThreadReference> allThreads = new ConcurrentHashMap<>();
+    private volatile boolean allThreadsSeeded = false;
+    private Map<Long, ThreadName> threadNameMap = new ConcurrentHashMap<>();
+    private Map<Long, String> threadGroupMap = new ConcurrentHashMap<>();
     private Map<Long, Boolean> deathThreads = Collections.synchronizedMap(new LinkedHashMap<>() {
         @Override
         protected boolean removeEldestEntry(java.util.Map.Entry<Long, Boolean> eldest) {
@@ -33,46 +47,103 @@ public class ThreadCache {
         }
     });
     private Map<Long, ThreadReference> eventThreads = new ConcurrentHashMap<>();
-    private Map<Long, Set<String>> decompiledClassesByThread = new HashMap<>();
-    private Map<Long, String> threadStoppedReasons = new HashMap<>();
+    // The threads suspended on their own (event thread suspend policy, pause request) rather than with the whole VM,
+    // only these threads may have more pending suspends than the others.
+    private final Set<Long> selfSuspendedThreads = ConcurrentHashMap.newKeySet();
+    // The threads resumed on their own since the VM was last fully resumed, their suspend counts may be lower
+    // than the VM-wide suspends, so the suspend count of a single thread no longer tells the VM-wide suspends.
+    private final Set<Long> resumedAloneThreads = ConcurrentHashMap.newKeySet();
+    private Map<Long, Set<String>> decompiledClassesByThread = new ConcurrentHashMap<>();
+    private Map<Long, String> threadStoppedReasons = new ConcurrentHashMap<>();
+    // Bumped on every change of the thread set, a snapshot built from an older version is stale.
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<ThreadSnapshot> visibleSnapshot = new AtomicReference<>();
 
-    public synchronized void resetThreads(List<ThreadReference> threads) {
-        allThreads.clear();
-        allThreads.addAll(threads);
+    /**
+     * Replaces the platform threads with the threads returned by VirtualMachine.allThreads().
+     */
+    public void resetThreads(List<ThreadReference> threads) {
+        Map<Long, ThreadReference> threadMap = new HashMap<>();
+        for (ThreadReference thread : threads) {
+            if (!isDeathThread(thread.uniqueID())) {
+                threadMap.put(thread.uniqueID(), thread);
+            }
+        }
+        allThreads.keySet().retainAll(threadMap.keySet());
+        allThreads.putAll(threadMap);
+        allThreadsSeeded = true;
+        version.incrementAndGet();
     }
 
-    public synchronized List<ThreadReference> getThreads() {
-        return allThreads;
+    public List<ThreadReference> getThreads() {
+        return new ArrayList<>(allThreads.values());
     }
 
-    public synchronized ThreadReference getThread(long threadId) {
-        for (ThreadReference thread : allThreads) {
-            if (threadId == thread.uniqueID()) {
-                return thread;
-            }
-        }
+    public ThreadReference getThread(long threadId) {
+        ThreadReference thread = allThreads.get(threadId);
+        return thread != null ? thread : eventThreads.get(threadId);
+    }
 
-        for (ThreadReference thread : eventThreads.values()) {
-            if (threadId == thread.uniqueID()) {
-                return thread;
-            }
+    /**
+     * Adds the thread reported by a ThreadStartEvent.
+     */
+    public void addThread(ThreadReference thread) {
+        if (allThreads.putIfAbsent(thread.uniqueID(), thread) == null) {
+            version.incrementAndGet();
         }
-
-        return null;
     }
 
     public void setThreadName(long threadId, String name) {
-        threadNameMap.put(threadId, name);
+        threadNameMap.put(threadId, new ThreadName(name, false));
     }
 
+    /**
+     * Returns the cached name of the thread, it may be stale, see {@link #isThreadNameStale(long)}.
+     */
     public String getThreadName(long threadId) {
-        return threadNameMap.get(threadId);
+        ThreadName threadName = threadNameMap.get(threadId);
+        return threadName == null ? null : threadName.name;
+    }
+
+    /**
+     * Returns whether the thread resumed after its name was cached, it may have been renamed by Thread.setName().
+     */
+    public boolean isThreadNameStale(long threadId) {
+        ThreadName threadName = threadNameMap.get(threadId);
+        return threadName != null && threadName.stale;
+    }
+
+    /**
+     * Marks the cached name of the resumed thread as stale, it's kept and refreshed lazily.
+     */
+    public void invalidateThreadName(long threadId) {
+        threadNameMap.computeIfPresent(threadId, (id, threadName) -> threadName.stale ? threadName : new ThreadName(threadName.name, true));
+    }
+
+    /**
+     * Marks the cached thread names as stale when all the threads resume, they are kept and refreshed lazily.
+     */
+    public void invalidateThreadNames() {
+        threadNameMap.replaceAll((id, threadName) -> threadName.stale ? threadName : new ThreadName(threadName.name, true));
+    }
+
+    public void setThreadGroupName(long threadId, String groupName) {
+        threadGroupMap.put(threadId, groupName);
+    }
+
+    public String getThreadGroupName(long threadId) {
+        return threadGroupMap.get(threadId);
     }
 
     public void addDeathThread(long threadId) {
         threadNameMap.remove(threadId);
+        threadGroupMap.remove(threadId);
+        allThreads.remove(threadId);
         eventThreads.remove(threadId);
+        selfSuspendedThreads.remove(threadId);
+        resumedAloneThreads.remove(threadId);
         deathThreads.put(threadId, true);
+        version.incrementAndGet();
     }
 
     public boolean isDeathThread(long threadId) {
@@ -80,48 +151,109 @@ public class ThreadCache {
     }
 
     public void addEventThread(ThreadReference thread) {
-        eventThreads.put(thread.uniqueID(), thread);
+        addEventThread(thread, null);
     }
 
     public void addEventThread(ThreadReference thread, String reason) {
-        eventThreads.put(thread.uniqueID(), thread);
+        selfSuspendedThreads.add(thread.uniqueID());
+        if (eventThreads.put(thread.uniqueID(), thread) == null) {
+            version.incrementAndGet();
+        }
         if (reason != null) {
             threadStoppedReasons.put(thread.uniqueID(), reason);
         }
     }
 
     public void removeEventThread(long threadId) {
-        eventThreads.remove(threadId);
+        selfSuspendedThreads.remove(threadId);
+        if (eventThreads.remove(threadId) != null) {
+            version.incrementAndGet();
+        }
     }
 
     public void clearEventThread() {
+        selfSuspendedThreads.clear();
         eventThreads.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records that the thread is suspended on its own rather than with the whole VM, e.g. by a pause request.
+     * The threads stopped by the events are recorded by {@link #addEventThread(ThreadReference, String)}.
+     */
+    public void addSelfSuspendedThread(long threadId) {
+        selfSuspendedThreads.add(threadId);
+    }
+
+    /**
+     * Records that the thread is resumed on its own rather than with the whole VM, e.g. by a step request.
+     */
+    public void addResumedAloneThread(long threadId) {
+        resumedAloneThreads.add(threadId);
+    }
+
+    /**
+     * Returns whether the VM-wide suspend count can be read from the suspend count of a thread which is not
+     * suspended on its own, i.e. no thread has been resumed on its own since the VM was last fully resumed.
+     */
+    public boolean isVMSuspendCountKnown() {
+        return resumedAloneThreads.isEmpty();
+    }
+
+    /**
+     * Records that all the threads are fully resumed with the VM.
+     */
+    public void clearResumedAloneThreads() {
+        resumedAloneThreads.clear();
+    }
+
+    /**
+     * Returns the ids of the threads which may have more pending suspends than the VM-wide suspends,
+     * the other threads can be resumed with VirtualMachine.resume() without querying their suspend counts.
+     */
+    public Set<Long> getSelfSuspendedThreads() {
+        return new HashSet<>(selfSuspendedThreads);
     }
 
     /**
      * The visible threads includes:
      * 1. The currently running threads returned by the JDI API
-     * VirtualMachine.allThreads().
+     * VirtualMachine.allThreads(), and then tracked by the thread events.
      * 2. The threads suspended by events such as Breakpoint, Step, Exception etc.
      *
      * The part 2 is mainly for virtual threads, since VirtualMachine.allThreads()
      * does not include virtual threads by default. For those virtual threads
      * that are suspended, we need to show their call stacks in CALL STACK view.
+     *
+     * <p>The returned list is an immutable snapshot shared by the callers.</p>
      */
     public List<ThreadReference> visibleThreads(IDebugAdapterContext context) {
-        List<ThreadReference> visibleThreads = new ArrayList<>(context.getDebugSession().getAllThreads());
-        Set<Long> idSet = new HashSet<>();
-        visibleThreads.forEach(thread -> idSet.add(thread.uniqueID()));
+        long currentVersion = version.get();
+        ThreadSnapshot snapshot = visibleSnapshot.get();
+        if (snapshot != null && snapshot.version == currentVersion) {
+            return snapshot.threads;
+        }
+
+        if (!allThreadsSeeded) {
+            resetThreads(context.getDebugSession().getAllThreads());
+            currentVersion = version.get();
+        }
+
+        List<ThreadReference> visibleThreads = new ArrayList<>(allThreads.values());
+        visibleThreads.sort(BY_ID);
+        List<ThreadReference> suspendedThreads = new ArrayList<>();
         for (ThreadReference thread : eventThreads.values()) {
-            if (idSet.contains(thread.uniqueID())) {
-                continue;
+            if (!allThreads.containsKey(thread.uniqueID())) {
+                suspendedThreads.add(thread);
             }
-
-            idSet.add(thread.uniqueID());
-            visibleThreads.add(thread);
         }
+        suspendedThreads.sort(BY_ID);
+        visibleThreads.addAll(suspendedThreads);
 
-        return visibleThreads;
+        // A snapshot raced with a change keeps the older version, so it's rebuilt by the next call.
+        snapshot = new ThreadSnapshot(currentVersion, Collections.unmodifiableList(visibleThreads));
+        visibleSnapshot.set(snapshot);
+        return snapshot.threads;
     }
 
     public Set<String> getDecompiledClassesByThread(long threadId) {
@@ -159,4 +291,24 @@ public class ThreadCache {
         threadStoppedReasons.clear();
         decompiledClassesByThread.clear();
     }
+
+    private static class ThreadName {
+        final String name;
+        final boolean stale;
+
+        ThreadName(String name, boolean stale) {
+            this.name = name;
+            this.stale = stale;
+        }
+    }
+
+    private static class ThreadSnapshot {
+        final long version;
+        final List<ThreadReference> threads;
+
+        ThreadSnapshot(long version, List<ThreadReference> threads) {
+            this.version = version;
+            this.threads = threads;
+        }
+    }
 }
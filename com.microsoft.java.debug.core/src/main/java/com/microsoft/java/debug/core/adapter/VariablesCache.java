@@ -0,0 +1,166 @@
+/*******************************************************************************
+* Copyright (c) 2026 Microsoft Corporation and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*     Microsoft Corporation - initial API and implementation
+*******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.microsoft.java.debug.core.DebugSettings;
+import com.microsoft.java.debug.core.adapter.variables.Variable;
+import com.sun.jdi.ObjectReference;
+
+/**
+ * Caches the resolved children and the formatted values of the objects, as well as the results of the
+ * heap queries and of the side-effect-free evaluations, while a thread stays suspended.
+ * The entries are keyed by the suspend epoch of the owner thread, which starts over whenever the thread resumes,
+ * so the entries computed before are never served again even if they are stored by a request still in flight.
+ * The objects are shared by the threads, so all the entries are dropped whenever any thread resumes. While a thread
+ * is suspended alone, the running threads may still change the objects, just as they may change the variables shown.
+ */
+public class VariablesCache {
+    private long lastEpoch = 0;
+    private long commonEpoch = 0;
+    private final Map<Long, Long> suspendEpochs = new HashMap<>();
+    private final Map<CacheKey, Object> entries = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+            return size() > getMaxSize();
+        }
+    };
+
+    /**
+     * Returns the current suspend epoch of the specified thread.
+     */
+    public synchronized long getSuspendEpoch(long threadId) {
+        return suspendEpochs.getOrDefault(threadId, commonEpoch);
+    }
+
+    /**
+     * Returns the cached children of the object, or <code>null</code> if they are not cached.
+     * @param discriminator
+     *              the parameters which affect the children list, e.g. the paging range
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<Variable> getChildren(long threadId, long epoch, ObjectReference obj, Object discriminator) {
+        Object children = isCurrent(threadId, epoch) ? entries.get(new CacheKey(CacheKey.CHILDREN, threadId, epoch, obj.uniqueID(), discriminator)) : null;
+        return children == null ? null : new ArrayList<>((List<Variable>) children);
+    }
+
+    public synchronized void putChildren(long threadId, long epoch, ObjectReference obj, Object discriminator, List<Variable> children) {
+        if (isCurrent(threadId, epoch)) {
+            entries.put(new CacheKey(CacheKey.CHILDREN, threadId, epoch, obj.uniqueID(), discriminator), new ArrayList<>(children));
+        }
+    }
+
+    /**
+     * Returns the cached formatted value of the object, or <code>null</code> if it's not cached.
+     */
+    public synchronized String getFormattedValue(long threadId, long epoch, ObjectReference obj, Map<String, Object> options) {
+        return isCurrent(threadId, epoch) ? (String) entries.get(new CacheKey(CacheKey.VALUE, threadId, epoch, obj.uniqueID(), options)) : null;
+    }
+
+    public synchronized void putFormattedValue(long threadId, long epoch, ObjectReference obj, Map<String, Object> options, String value) {
+        if (value != null && isCurrent(threadId, epoch)) {
+            entries.put(new CacheKey(CacheKey.VALUE, threadId, epoch, obj.uniqueID(), new HashMap<>(options)), value);
+        }
+    }
+
+    /**
+     * Returns the cached result of a query which doesn't belong to a single object, e.g. a heap query,
+     * or <code>null</code> if it's not cached.
+     * @param query
+     *              the query and its parameters
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T getQueryResult(long threadId, long epoch, Object query) {
+        return isCurrent(threadId, epoch) ? (T) entries.get(new CacheKey(CacheKey.QUERY, threadId, epoch, 0, query)) : null;
+    }
+
+    public synchronized void putQueryResult(long threadId, long epoch, Object query, Object result) {
+        if (result != null && isCurrent(threadId, epoch)) {
+            entries.put(new CacheKey(CacheKey.QUERY, threadId, epoch, 0, query), result);
+        }
+    }
+
+    /**
+     * Records that the specified thread resumes, a new suspend epoch is started for it. It may change the objects
+     * seen by the other threads as well, so all the entries are dropped.
+     */
+    public synchronized void invalidate(long threadId) {
+        suspendEpochs.put(threadId, ++lastEpoch);
+        entries.clear();
+    }
+
+    /**
+     * Starts a new suspend epoch for all the threads and drops all the entries, e.g. the whole VM resumes,
+     * the target VM is disconnected or an expression with side effects is evaluated.
+     */
+    public synchronized void clear() {
+        // The epochs are never reused, so a new one differs from any epoch a thread had before.
+        commonEpoch = ++lastEpoch;
+        suspendEpochs.clear();
+        entries.clear();
+    }
+
+    private boolean isCurrent(long threadId, long epoch) {
+        return getMaxSize() > 0 && getSuspendEpoch(threadId) == epoch;
+    }
+
+    private static int getMaxSize() {
+        return Math.max(DebugSettings.getCurrent().variablesCacheSize, 0);
+    }
+
+    private static class CacheKey {
+        static final int CHILDREN = 0;
+        static final int VALUE = 1;
+        static final int QUERY = 2;
+
+        final int kind;
+        final long threadId;
+        final long epoch;
+        final long objectId;
+        final Object discriminator;
+
+        CacheKey(int kind, long threadId, long epoch, long objectId, Object discriminator) {
+            this.kind = kind;
+            this.threadId = threadId;
+            this.epoch = epoch;
+            this.objectId = objectId;
+            this.discriminator = discriminator;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, threadId, epoch, objectId, discriminator);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+
+            CacheKey other = (CacheKey) obj;
+            return kind == other.kind && threadId == other.threadId && epoch == other.epoch
+                && objectId == other.objectId && Objects.equals(discriminator, other.discriminator);
+        }
+    }
+}
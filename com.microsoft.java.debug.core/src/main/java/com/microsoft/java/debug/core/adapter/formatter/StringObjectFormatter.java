@@ -19,6 +19,7 @@ import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.microsoft.java.debug.core.adapter.variables.StringReferenceUtils;
 import com.sun.jdi.StringReference;
 import com.sun.jdi.Type;
 import com.sun.jdi.Value;
@@ -42,8 +43,14 @@ public class StringObjectFormatter extends ObjectFormatter implements IValueForm
     @Override
     public String toString(Object value, Map<String, Object> options) {
         int maxLength = getMaxStringLength(options);
-        return String.format("\"%s\"",
-                maxLength > 0 ? StringUtils.abbreviate(((StringReference) value).value(), maxLength) : ((StringReference) value).value());
+        StringReference str = (StringReference) value;
+        if (maxLength <= 0) {
+            return String.format("\"%s\"", str.value());
+        }
+
+        // Only read one more character than the limit, it tells whether the string needs to be abbreviated.
+        String prefix = StringReferenceUtils.getValue(str, maxLength == Integer.MAX_VALUE ? maxLength : maxLength + 1);
+        return String.format("\"%s\"", StringUtils.abbreviate(prefix, maxLength));
     }
 
     @Override
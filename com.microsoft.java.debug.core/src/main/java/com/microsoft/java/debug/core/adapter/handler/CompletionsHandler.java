@@ -54,7 +54,9 @@ public class CompletionsHandler implements IDebugRequestHandler {
 
         if (stackFrameReference == null) {
             throw AdapterUtils.createCompletionException(
-                String.format("Completions: cannot find the stack frame with frameID %s", completionsArgs.frameId),
+                context.getRecyclableIdPool().isStale(completionsArgs.frameId)
+                    ? String.format("Completions: the stack frame with frameID %s is stale, the thread has resumed since.", completionsArgs.frameId)
+                    : String.format("Completions: cannot find the stack frame with frameID %s", completionsArgs.frameId),
                 ErrorCode.COMPLETIONS_FAILURE
             );
         }
@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
+import com.microsoft.java.debug.core.AsyncJdwpUtils;
 import com.microsoft.java.debug.core.Configuration;
 import com.microsoft.java.debug.core.DebugEvent;
 import com.microsoft.java.debug.core.DebugUtility;
@@ -78,6 +79,7 @@ public class ConfigurationDoneRequestHandler implements IDebugRequestHandler {
                 DebugUtility.stopOnEntry(debugSession, context.getMainClass()).thenAccept(threadId -> {
                     context.getProtocolServer().sendEvent(new Events.StoppedEvent("entry", threadId));
                     context.getThreadCache().setThreadStoppedReason(threadId, "entry");
+                    context.getThreadCache().addSelfSuspendedThread(threadId);
                 });
             }
         } else if (event instanceof VMDeathEvent) {
@@ -100,6 +102,9 @@ public class ConfigurationDoneRequestHandler implements IDebugRequestHandler {
             }
         } else if (event instanceof ThreadStartEvent) {
             ThreadReference startThread = ((ThreadStartEvent) event).thread();
+            context.getThreadCache().addThread(startThread);
+            // Cache the name off the event thread, so the threads request doesn't need to resolve it.
+            AsyncJdwpUtils.runAsync(() -> ThreadsRequestHandler.cacheThreadName(startThread, context));
             Events.ThreadEvent threadEvent = new Events.ThreadEvent("started", startThread.uniqueID());
             context.getProtocolServer().sendEvent(threadEvent);
         } else if (event instanceof ThreadDeathEvent) {
@@ -19,7 +19,6 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
 import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
-import com.microsoft.java.debug.core.adapter.variables.StackFrameReference;
 import com.microsoft.java.debug.core.adapter.variables.VariableProxy;
 import com.microsoft.java.debug.core.protocol.Messages.Response;
 import com.microsoft.java.debug.core.protocol.Requests.Arguments;
@@ -44,7 +43,7 @@ public class DataBreakpointInfoRequestHandler implements IDebugRequestHandler {
         if (dataBpArgs.variablesReference > 0) {
             Object container = context.getRecyclableIdPool().getObjectById(dataBpArgs.variablesReference);
             if (container instanceof VariableProxy) {
-                if (!(((VariableProxy) container).getProxiedVariable() instanceof StackFrameReference)) {
+                if (((VariableProxy) container).getProxiedVariable() instanceof ObjectReference) {
                     ObjectReference containerObj = (ObjectReference) ((VariableProxy) container).getProxiedVariable();
                     ReferenceType type = containerObj.referenceType();
                     Field field = type.fieldByName(dataBpArgs.name);
@@ -30,10 +30,12 @@ import com.microsoft.java.debug.core.adapter.ErrorCode;
 import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
 import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
 import com.microsoft.java.debug.core.adapter.IEvaluationProvider;
+import com.microsoft.java.debug.core.adapter.VariablesCache;
 import com.microsoft.java.debug.core.adapter.variables.IVariableFormatter;
 import com.microsoft.java.debug.core.adapter.variables.JavaLogicalStructure;
 import com.microsoft.java.debug.core.adapter.variables.JavaLogicalStructureManager;
 import com.microsoft.java.debug.core.adapter.variables.StackFrameReference;
+import com.microsoft.java.debug.core.adapter.variables.StringReferenceUtils;
 import com.microsoft.java.debug.core.adapter.variables.VariableDetailUtils;
 import com.microsoft.java.debug.core.adapter.variables.VariableProxy;
 import com.microsoft.java.debug.core.adapter.variables.VariableUtils;
@@ -45,11 +47,13 @@ import com.microsoft.java.debug.core.protocol.Responses;
 import com.sun.jdi.ArrayReference;
 import com.sun.jdi.IntegerValue;
 import com.sun.jdi.ObjectReference;
+import com.sun.jdi.StringReference;
 import com.sun.jdi.Value;
 import com.sun.jdi.VoidValue;
 
 public class EvaluateRequestHandler implements IDebugRequestHandler {
     protected static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
+    private final WatchEvaluationBatcher watchBatcher = new WatchEvaluationBatcher();
 
     @Override
     public List<Command> getTargetCommands() {
@@ -87,13 +91,33 @@ public class EvaluateRequestHandler implements IDebugRequestHandler {
         return CompletableFuture.supplyAsync(() -> {
             IEvaluationProvider engine = context.getProvider(IEvaluationProvider.class);
             try {
-                Value value = engine.evaluate(expression, stackFrameReference.getThread(), stackFrameReference.getDepth()).get();
+                long threadId = stackFrameReference.getThread().uniqueID();
+                // The result of a side-effect-free expression is memoized until any thread resumes.
+                boolean sideEffectFree = engine.isSideEffectFree(expression);
+                VariablesCache variablesCache = context.getVariablesCache();
+                long epoch = variablesCache.getSuspendEpoch(threadId);
+                List<Object> memoKey = Arrays.asList(Command.EVALUATE, stackFrameReference.getDepth(), expression);
+                Value value = sideEffectFree ? variablesCache.getQueryResult(threadId, epoch, memoKey) : null;
+                if (value == null) {
+                    if ("watch".equals(evalArguments.context)) {
+                        // The watch expressions of the same frame are refreshed together, evaluate them as a batch.
+                        value = watchBatcher.evaluate(engine, expression, stackFrameReference.getThread(), stackFrameReference.getDepth()).get();
+                    } else {
+                        value = engine.evaluate(expression, stackFrameReference.getThread(), stackFrameReference.getDepth()).get();
+                    }
+
+                    if (sideEffectFree) {
+                        variablesCache.putQueryResult(threadId, epoch, memoKey, value);
+                    } else {
+                        // The expression may have side effects on the cached objects.
+                        variablesCache.clear();
+                    }
+                }
                 IVariableFormatter variableFormatter = context.getVariableFormatter();
                 if (value instanceof VoidValue) {
                     response.body = new Responses.EvaluateResponseBody(value.toString(), 0, "<void>", 0);
                     return response;
                 }
-                long threadId = stackFrameReference.getThread().uniqueID();
                 if (value instanceof ObjectReference) {
                     VariableProxy varProxy = new VariableProxy(stackFrameReference.getThread(), "eval", value, null, expression);
                     int indexedVariables = -1;
@@ -121,7 +145,12 @@ public class EvaluateRequestHandler implements IDebugRequestHandler {
                     boolean hasErrors = false;
                     String valueString = null;
                     try {
-                        valueString = variableFormatter.valueToString(value, options);
+                        if ("clipboard".equals(evalArguments.context) && value instanceof StringReference) {
+                            // Copy the complete string rather than the abbreviated one, it's read in chunks.
+                            valueString = "\"" + StringReferenceUtils.getValue((StringReference) value) + "\"";
+                        } else {
+                            valueString = variableFormatter.valueToString(value, options);
+                        }
                     } catch (OutOfMemoryError e) {
                         hasErrors = true;
                         logger.log(Level.SEVERE, "Failed to convert the value of a large object to a string", e);
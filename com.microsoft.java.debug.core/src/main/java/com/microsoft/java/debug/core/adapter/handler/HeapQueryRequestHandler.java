@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.handler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.microsoft.java.debug.core.Configuration;
+import com.microsoft.java.debug.core.DebugUtility;
+import com.microsoft.java.debug.core.adapter.AdapterUtils;
+import com.microsoft.java.debug.core.adapter.ErrorCode;
+import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
+import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
+import com.microsoft.java.debug.core.adapter.VariablesCache;
+import com.microsoft.java.debug.core.adapter.variables.HeapObjects;
+import com.microsoft.java.debug.core.adapter.variables.VariableProxy;
+import com.microsoft.java.debug.core.protocol.Messages.Response;
+import com.microsoft.java.debug.core.protocol.Requests.Arguments;
+import com.microsoft.java.debug.core.protocol.Requests.Command;
+import com.microsoft.java.debug.core.protocol.Requests.InstanceCountsArguments;
+import com.microsoft.java.debug.core.protocol.Requests.InstancesArguments;
+import com.microsoft.java.debug.core.protocol.Requests.ReferringObjectsArguments;
+import com.microsoft.java.debug.core.protocol.Responses;
+import com.microsoft.java.debug.core.protocol.Types.ClassInstanceCount;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VirtualMachine;
+
+/**
+ * Browses the heap of the target VM while it's stopped: the instance count histogram of the classes,
+ * the instances of a class and the objects referring to an object. The heap walks are computed off the
+ * request dispatcher and cached for the suspend epoch of the requesting thread.
+ */
+public class HeapQueryRequestHandler implements IDebugRequestHandler {
+    protected static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
+    private static final String HEAP_SCOPE = "heap";
+    private static final int DEFAULT_MAX_RESULTS = 100;
+    private static final int DEFAULT_MAX_OBJECTS = 1000;
+
+    @Override
+    public List<Command> getTargetCommands() {
+        return Arrays.asList(Command.INSTANCECOUNTS, Command.INSTANCES, Command.REFERRINGOBJECTS);
+    }
+
+    @Override
+    public CompletableFuture<Response> handle(Command command, Arguments arguments, Response response,
+            IDebugAdapterContext context) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                switch (command) {
+                    case INSTANCECOUNTS:
+                        response.body = getInstanceCounts((InstanceCountsArguments) arguments, context);
+                        break;
+                    case INSTANCES:
+                        response.body = getInstances((InstancesArguments) arguments, context);
+                        break;
+                    case REFERRINGOBJECTS:
+                        response.body = getReferringObjects((ReferringObjectsArguments) arguments, context);
+                        break;
+                    default:
+                        break;
+                }
+                return response;
+            } catch (CompletionException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, String.format("Failed to query the heap: %s", e.toString()), e);
+                throw AdapterUtils.createCompletionException(
+                    String.format("Failed to query the heap. Reason: %s", e.toString()),
+                    ErrorCode.HEAP_QUERY_FAILURE,
+                    e);
+            }
+        });
+    }
+
+    private Responses.InstanceCountsResponseBody getInstanceCounts(InstanceCountsArguments args, IDebugAdapterContext context) {
+        ThreadReference thread = getSuspendedThread(args.threadId, context);
+        VirtualMachine vm = checkInstanceInfo(thread);
+        List<String> classNames = args.classNames == null ? Collections.emptyList() : Arrays.asList(args.classNames);
+        int maxResults = args.maxResults > 0 ? args.maxResults : DEFAULT_MAX_RESULTS;
+        VariablesCache cache = context.getVariablesCache();
+        long epoch = cache.getSuspendEpoch(thread.uniqueID());
+        List<Object> query = Arrays.asList(Command.INSTANCECOUNTS, classNames, maxResults);
+        ClassInstanceCount[] histogram = cache.getQueryResult(thread.uniqueID(), epoch, query);
+        if (histogram == null) {
+            List<ReferenceType> types = classNames.isEmpty() ? vm.allClasses() : getReferenceTypes(vm, classNames);
+            // Counts all the classes within a single heap walk.
+            long[] counts = vm.instanceCounts(types);
+            List<ClassInstanceCount> results = new ArrayList<>();
+            for (int i = 0; i < types.size(); i++) {
+                if (counts[i] > 0) {
+                    results.add(new ClassInstanceCount(types.get(i).name(), counts[i]));
+                }
+            }
+            histogram = results.stream()
+                    .sorted(Comparator.comparingLong((ClassInstanceCount result) -> result.count).reversed())
+                    .limit(maxResults)
+                    .toArray(ClassInstanceCount[]::new);
+            cache.putQueryResult(thread.uniqueID(), epoch, query, histogram);
+        }
+
+        return new Responses.InstanceCountsResponseBody(histogram);
+    }
+
+    private Responses.HeapObjectsResponseBody getInstances(InstancesArguments args, IDebugAdapterContext context) {
+        ThreadReference thread = getSuspendedThread(args.threadId, context);
+        VirtualMachine vm = checkInstanceInfo(thread);
+        if (args.className == null) {
+            throw AdapterUtils.createCompletionException("Instances: the class name is missing.", ErrorCode.ARGUMENT_MISSING);
+        }
+
+        int maxInstances = args.maxInstances > 0 ? args.maxInstances : DEFAULT_MAX_OBJECTS;
+        VariablesCache cache = context.getVariablesCache();
+        long epoch = cache.getSuspendEpoch(thread.uniqueID());
+        List<Object> query = Arrays.asList(Command.INSTANCES, args.className, maxInstances);
+        HeapObjects instances = cache.getQueryResult(thread.uniqueID(), epoch, query);
+        if (instances == null) {
+            // The class may be loaded by several class loaders.
+            List<ReferenceType> types = getReferenceTypes(vm, Collections.singletonList(args.className));
+            List<ObjectReference> objects = new ArrayList<>();
+            for (ReferenceType type : types) {
+                if (objects.size() >= maxInstances) {
+                    break;
+                }
+                objects.addAll(type.instances(maxInstances - objects.size()));
+            }
+            long total = Arrays.stream(vm.instanceCounts(types)).sum();
+            String description = objects.size() < total
+                    ? String.format("%d of %d instances of %s", objects.size(), total, args.className)
+                    : String.format("%d instances of %s", objects.size(), args.className);
+            instances = new HeapObjects(description, objects);
+            cache.putQueryResult(thread.uniqueID(), epoch, query, instances);
+        }
+
+        return toResponseBody(thread, instances, context);
+    }
+
+    private Responses.HeapObjectsResponseBody getReferringObjects(ReferringObjectsArguments args, IDebugAdapterContext context) {
+        Object container = context.getRecyclableIdPool().getObjectById(args.variablesReference);
+        if (!(container instanceof VariableProxy) || !(((VariableProxy) container).getProxiedVariable() instanceof ObjectReference)) {
+            throw AdapterUtils.createCompletionException(
+                context.getRecyclableIdPool().isStale(args.variablesReference)
+                    ? String.format("ReferringObjects: the variablesReference %d is stale, the thread has resumed since.", args.variablesReference)
+                    : String.format("ReferringObjects: invalid variablesReference %d.", args.variablesReference),
+                ErrorCode.HEAP_QUERY_FAILURE);
+        }
+
+        VariableProxy containerNode = (VariableProxy) container;
+        ThreadReference thread = containerNode.getThread();
+        checkInstanceInfo(thread);
+        ObjectReference obj = (ObjectReference) containerNode.getProxiedVariable();
+        int maxReferrers = args.maxReferrers > 0 ? args.maxReferrers : DEFAULT_MAX_OBJECTS;
+        VariablesCache cache = context.getVariablesCache();
+        long epoch = cache.getSuspendEpoch(thread.uniqueID());
+        List<Object> query = Arrays.asList(Command.REFERRINGOBJECTS, obj.uniqueID(), maxReferrers);
+        HeapObjects referrers = cache.getQueryResult(thread.uniqueID(), epoch, query);
+        if (referrers == null) {
+            List<ObjectReference> objects = obj.referringObjects(maxReferrers);
+            referrers = new HeapObjects(String.format("%d referrers of %s", objects.size(), obj.referenceType().name()), objects);
+            cache.putQueryResult(thread.uniqueID(), epoch, query, referrers);
+        }
+
+        return toResponseBody(thread, referrers, context);
+    }
+
+    private static Responses.HeapObjectsResponseBody toResponseBody(ThreadReference thread, HeapObjects objects, IDebugAdapterContext context) {
+        int referenceId = 0;
+        if (objects.size() > 0) {
+            VariableProxy proxy = new VariableProxy(thread, HEAP_SCOPE, objects, null, null);
+            referenceId = context.getRecyclableIdPool().addObject(thread.uniqueID(), proxy);
+        }
+        return new Responses.HeapObjectsResponseBody(objects.getDescription(), referenceId, objects.size());
+    }
+
+    private static ThreadReference getSuspendedThread(long threadId, IDebugAdapterContext context) {
+        ThreadReference thread = context.getThreadCache().getThread(threadId);
+        if (thread == null) {
+            thread = DebugUtility.getThread(context.getDebugSession(), threadId);
+        }
+
+        if (thread == null || !thread.isSuspended()) {
+            throw new CompletionException(AdapterUtils.createUserErrorDebugException(
+                String.format("Cannot query the heap because the thread %d is not suspended.", threadId),
+                ErrorCode.HEAP_QUERY_FAILURE));
+        }
+        return thread;
+    }
+
+    private static VirtualMachine checkInstanceInfo(ThreadReference thread) {
+        VirtualMachine vm = thread.virtualMachine();
+        if (!vm.canGetInstanceInfo()) {
+            throw new CompletionException(AdapterUtils.createUserErrorDebugException(
+                "The target VM doesn't support querying the heap.", ErrorCode.HEAP_QUERY_FAILURE));
+        }
+        return vm;
+    }
+
+    private static List<ReferenceType> getReferenceTypes(VirtualMachine vm, List<String> classNames) {
+        List<ReferenceType> types = new ArrayList<>();
+        for (String className : classNames) {
+            types.addAll(vm.classesByName(className));
+        }
+        return types;
+    }
+}
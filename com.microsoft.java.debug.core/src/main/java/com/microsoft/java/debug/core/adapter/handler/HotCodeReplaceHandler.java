@@ -19,6 +19,7 @@ import com.microsoft.java.debug.core.adapter.HotCodeReplaceEvent;
 import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
 import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
 import com.microsoft.java.debug.core.adapter.IHotCodeReplaceProvider;
+import com.microsoft.java.debug.core.adapter.variables.VariableDetailUtils;
 import com.microsoft.java.debug.core.protocol.Events;
 import com.microsoft.java.debug.core.protocol.Events.HotCodeReplaceEvent.ChangeType;
 import com.microsoft.java.debug.core.protocol.Messages.Response;
@@ -37,6 +38,12 @@ public class HotCodeReplaceHandler implements IDebugRequestHandler {
     public void initialize(IDebugAdapterContext context) {
         IDebugRequestHandler.super.initialize(context);
         IHotCodeReplaceProvider provider = context.getProvider(IHotCodeReplaceProvider.class);
+        // The redefined classes may add or remove the toString() override, drop the cached type answers.
+        provider.onClassRedefined(classNames -> {
+            if (context.getDebugSession() != null) {
+                VariableDetailUtils.invalidateTypeCapabilities(context.getDebugSession().getVM());
+            }
+        });
         provider.getEventHub()
             .subscribe(event -> {
                 if (event.getEventType() == HotCodeReplaceEvent.EventType.BUILD_COMPLETE) {
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.handler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.microsoft.java.debug.core.AsyncJdwpUtils;
+import com.microsoft.java.debug.core.Configuration;
+import com.microsoft.java.debug.core.adapter.AdapterUtils;
+import com.microsoft.java.debug.core.adapter.ErrorCode;
+import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
+import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
+import com.microsoft.java.debug.core.adapter.variables.StackFrameReference;
+import com.microsoft.java.debug.core.protocol.Messages.Response;
+import com.microsoft.java.debug.core.protocol.Requests.AnalyzeMonitorsArguments;
+import com.microsoft.java.debug.core.protocol.Requests.Arguments;
+import com.microsoft.java.debug.core.protocol.Requests.Command;
+import com.microsoft.java.debug.core.protocol.Responses;
+import com.microsoft.java.debug.core.protocol.Types.ContendedMonitor;
+import com.microsoft.java.debug.core.protocol.Types.Deadlock;
+import com.microsoft.java.debug.core.protocol.Types.DeadlockedThread;
+import com.sun.jdi.IncompatibleThreadStateException;
+import com.sun.jdi.MonitorInfo;
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VirtualMachine;
+
+/**
+ * Suspends the target VM and collects the owned and contended monitors of all the threads in parallel on the
+ * JDWP thread pool, then builds the wait-for graph of the threads to report the deadlock cycles and the most
+ * contended monitors in a single request. The VM is resumed afterwards, the client sees no stop.
+ */
+public class MonitorAnalysisRequestHandler implements IDebugRequestHandler {
+    protected static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
+    private static final int DEFAULT_MAX_MONITORS = 20;
+
+    @Override
+    public List<Command> getTargetCommands() {
+        return Arrays.asList(Command.ANALYZEMONITORS);
+    }
+
+    @Override
+    public CompletableFuture<Response> handle(Command command, Arguments arguments, Response response,
+            IDebugAdapterContext context) {
+        if (context.getDebugSession() == null) {
+            return AdapterUtils.createAsyncErrorResponse(response, ErrorCode.EMPTY_DEBUG_SESSION,
+                    "Debug Session doesn't exist.");
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                response.body = analyze((AnalyzeMonitorsArguments) arguments, context);
+                return response;
+            } catch (CompletionException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, String.format("Failed to analyze the monitors: %s", e.toString()), e);
+                throw AdapterUtils.createCompletionException(
+                    String.format("Failed to analyze the monitors. Reason: %s", e.toString()),
+                    ErrorCode.MONITOR_ANALYSIS_FAILURE,
+                    e);
+            }
+        });
+    }
+
+    private Responses.AnalyzeMonitorsResponseBody analyze(AnalyzeMonitorsArguments args, IDebugAdapterContext context) {
+        VirtualMachine vm = context.getDebugSession().getVM();
+        if (!vm.canGetOwnedMonitorInfo() || !vm.canGetCurrentContendedMonitor()) {
+            throw new CompletionException(AdapterUtils.createUserErrorDebugException(
+                "The target VM doesn't support querying the monitor information.", ErrorCode.MONITOR_ANALYSIS_FAILURE));
+        }
+
+        // The monitor states of the threads are only consistent while the whole VM is stopped, and the stack depths of
+        // the monitors are only valid until the threads resume. The nested suspend keeps the suspend count of the stopped threads.
+        vm.suspend();
+        try {
+            return analyzeSuspended(args, context);
+        } finally {
+            vm.resume();
+        }
+    }
+
+    private Responses.AnalyzeMonitorsResponseBody analyzeSuspended(AnalyzeMonitorsArguments args, IDebugAdapterContext context) {
+        boolean canGetMonitorFrames = context.getDebugSession().getVM().canGetMonitorFrameInfo();
+        List<CompletableFuture<ThreadMonitors>> futures = context.getDebugSession().getAllThreads().stream()
+                .map(thread -> AsyncJdwpUtils.supplyAsync(() -> ThreadMonitors.of(thread, canGetMonitorFrames)))
+                .collect(Collectors.toList());
+        Map<Long, ThreadMonitors> threads = new LinkedHashMap<>();
+        for (ThreadMonitors monitors : AsyncJdwpUtils.await(futures)) {
+            if (monitors != null) {
+                threads.put(monitors.thread.uniqueID(), monitors);
+            }
+        }
+
+        // The owner of a monitor is known from the owned monitors, no need to ask each contended monitor.
+        Map<Long, MonitorInfo> owners = new HashMap<>();
+        Map<Long, ThreadMonitors> ownerThreads = new HashMap<>();
+        for (ThreadMonitors monitors : threads.values()) {
+            for (MonitorInfo monitor : monitors.ownedMonitors) {
+                owners.put(monitor.monitor().uniqueID(), monitor);
+                ownerThreads.put(monitor.monitor().uniqueID(), monitors);
+            }
+        }
+
+        Map<Long, Long> waitsFor = new HashMap<>();
+        Map<Long, List<ThreadMonitors>> waitersByMonitor = new HashMap<>();
+        for (ThreadMonitors monitors : threads.values()) {
+            if (monitors.contendedMonitor == null) {
+                continue;
+            }
+
+            long monitorId = monitors.contendedMonitor.uniqueID();
+            waitersByMonitor.computeIfAbsent(monitorId, id -> new ArrayList<>()).add(monitors);
+            ThreadMonitors owner = ownerThreads.get(monitorId);
+            if (owner != null) {
+                waitsFor.put(monitors.thread.uniqueID(), owner.thread.uniqueID());
+            }
+        }
+
+        List<Deadlock> deadlocks = new ArrayList<>();
+        for (List<Long> cycle : findDeadlocks(waitsFor)) {
+            List<DeadlockedThread> deadlockedThreads = new ArrayList<>();
+            for (long threadId : cycle) {
+                ThreadMonitors waiter = threads.get(threadId);
+                long monitorId = waiter.contendedMonitor.uniqueID();
+                ThreadMonitors owner = ownerThreads.get(monitorId);
+                deadlockedThreads.add(new DeadlockedThread(threadId, waiter.name, describe(waiter.contendedMonitor),
+                        getFrameId(waiter.thread, 0, context), owner.thread.uniqueID(),
+                        getFrameId(owner.thread, owners.get(monitorId).stackDepth(), context)));
+            }
+            deadlocks.add(new Deadlock(deadlockedThreads.toArray(new DeadlockedThread[0])));
+        }
+
+        int maxMonitors = args.maxMonitors > 0 ? args.maxMonitors : DEFAULT_MAX_MONITORS;
+        ContendedMonitor[] contendedMonitors = waitersByMonitor.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<Long, List<ThreadMonitors>> entry) -> entry.getValue().size()).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(maxMonitors)
+                .map(entry -> {
+                    List<ThreadMonitors> waiters = entry.getValue();
+                    ThreadMonitors owner = ownerThreads.get(entry.getKey());
+                    long[] waitingThreadIds = waiters.stream().mapToLong(waiter -> waiter.thread.uniqueID()).toArray();
+                    String monitor = describe(waiters.get(0).contendedMonitor);
+                    if (owner == null) {
+                        return new ContendedMonitor(monitor, 0, null, 0, waitingThreadIds);
+                    }
+                    return new ContendedMonitor(monitor, owner.thread.uniqueID(), owner.name,
+                            getFrameId(owner.thread, owners.get(entry.getKey()).stackDepth(), context), waitingThreadIds);
+                })
+                .toArray(ContendedMonitor[]::new);
+
+        return new Responses.AnalyzeMonitorsResponseBody(deadlocks.toArray(new Deadlock[0]), contendedMonitors);
+    }
+
+    /**
+     * Finds the cycles of the wait-for graph. Every thread waits for at most one monitor, so each node has at most
+     * one outgoing edge and each cycle is found by following the edges from any of its threads.
+     *
+     * @param waitsFor the map from a blocked thread to the owner thread of the monitor it's waiting for
+     * @return the deadlock cycles, each one listed from its thread with the smallest id
+     */
+    static List<List<Long>> findDeadlocks(Map<Long, Long> waitsFor) {
+        List<List<Long>> cycles = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        for (Long start : new TreeMap<>(waitsFor).keySet()) {
+            List<Long> path = new ArrayList<>();
+            Long current = start;
+            while (current != null && visited.add(current)) {
+                path.add(current);
+                current = waitsFor.get(current);
+            }
+
+            int cycleStart = current == null ? -1 : path.indexOf(current);
+            if (cycleStart >= 0) {
+                List<Long> cycle = new ArrayList<>(path.subList(cycleStart, path.size()));
+                Collections.rotate(cycle, -cycle.indexOf(Collections.min(cycle)));
+                cycles.add(cycle);
+            }
+        }
+        return cycles;
+    }
+
+    private static int getFrameId(ThreadReference thread, int depth, IDebugAdapterContext context) {
+        if (depth < 0) {
+            return 0;
+        }
+        return context.getRecyclableIdPool().addObject(thread.uniqueID(), new StackFrameReference(thread, depth));
+    }
+
+    private static String describe(ObjectReference monitor) {
+        try {
+            return String.format("%s@%d", monitor.referenceType().name(), monitor.uniqueID());
+        } catch (ObjectCollectedException e) {
+            return String.format("Object@%d", monitor.uniqueID());
+        }
+    }
+
+    private static final class ThreadMonitors {
+        private final ThreadReference thread;
+        private final String name;
+        private final List<MonitorInfo> ownedMonitors;
+        private final ObjectReference contendedMonitor;
+
+        private ThreadMonitors(ThreadReference thread, String name, List<MonitorInfo> ownedMonitors, ObjectReference contendedMonitor) {
+            this.thread = thread;
+            this.name = name;
+            this.ownedMonitors = ownedMonitors;
+            this.contendedMonitor = contendedMonitor;
+        }
+
+        /**
+         * Collects the monitor state of the thread, or returns <code>null</code> if the thread is gone.
+         */
+        static ThreadMonitors of(ThreadReference thread, boolean canGetMonitorFrames) {
+            try {
+                List<MonitorInfo> ownedMonitors;
+                if (canGetMonitorFrames) {
+                    ownedMonitors = thread.ownedMonitorsAndFrames();
+                } else {
+                    // Without the frame info the stack depth of the monitors is unknown.
+                    ownedMonitors = thread.ownedMonitors().stream()
+                            .map(monitor -> new UnknownDepthMonitorInfo(monitor, thread))
+                            .collect(Collectors.toList());
+                }
+                // The thread in Object.wait() reports the monitor it waits to be notified on, it's not blocked by the owner.
+                ObjectReference contendedMonitor = thread.status() == ThreadReference.THREAD_STATUS_MONITOR
+                        ? thread.currentContendedMonitor() : null;
+                return new ThreadMonitors(thread, thread.name(), ownedMonitors, contendedMonitor);
+            } catch (IncompatibleThreadStateException | ObjectCollectedException e) {
+                // The thread is terminated or it's not suspended.
+                return null;
+            }
+        }
+    }
+
+    private static final class UnknownDepthMonitorInfo implements MonitorInfo {
+        private final ObjectReference monitor;
+        private final ThreadReference thread;
+
+        private UnknownDepthMonitorInfo(ObjectReference monitor, ThreadReference thread) {
+            this.monitor = monitor;
+            this.thread = thread;
+        }
+
+        @Override
+        public ObjectReference monitor() {
+            return monitor;
+        }
+
+        @Override
+        public int stackDepth() {
+            return -1;
+        }
+
+        @Override
+        public ThreadReference thread() {
+            return thread;
+        }
+
+        @Override
+        public VirtualMachine virtualMachine() {
+            return thread.virtualMachine();
+        }
+    }
+}
@@ -54,7 +54,9 @@ public class RestartFrameHandler implements IDebugRequestHandler {
 
         if (stackFrameReference == null) {
             throw AdapterUtils.createCompletionException(
-                String.format("RestartFrame: cannot find the stack frame with frameID %s", restartFrameArgs.frameId),
+                context.getRecyclableIdPool().isStale(restartFrameArgs.frameId)
+                    ? String.format("RestartFrame: the stack frame with frameID %s is stale, the thread has resumed since.", restartFrameArgs.frameId)
+                    : String.format("RestartFrame: cannot find the stack frame with frameID %s", restartFrameArgs.frameId),
                 ErrorCode.RESTARTFRAME_FAILURE);
         }
 
@@ -127,6 +129,8 @@ public class RestartFrameHandler implements IDebugRequestHandler {
             context.getThreadCache().setThreadStoppedReason(thread.uniqueID(), "restartframe");
         });
         request.enable();
+        context.getThreadCache().addResumedAloneThread(thread.uniqueID());
+        context.getVariablesCache().invalidate(thread.uniqueID());
         thread.resume();
     }
 }
\ No newline at end of file
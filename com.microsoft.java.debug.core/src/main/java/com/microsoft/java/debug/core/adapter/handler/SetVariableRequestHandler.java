@@ -80,10 +80,12 @@ public class SetVariableRequestHandler implements IDebugRequestHandler {
         VariableUtils.applyFormatterOptions(options, setVarArguments.format != null && setVarArguments.format.hex);
 
         Object container = context.getRecyclableIdPool().getObjectById(setVarArguments.variablesReference);
-        // container is null means the stack frame is continued by user manually.
+        // container is null means the stack frame is continued by user manually, or the reference is unknown.
         if (container == null) {
             throw AdapterUtils.createCompletionException(
-                "Failed to set variable. Reason: Cannot set value because the thread is resumed.",
+                context.getRecyclableIdPool().isStale(setVarArguments.variablesReference)
+                    ? "Failed to set variable. Reason: Cannot set value because the thread is resumed."
+                    : String.format("Failed to set variable. Reason: Invalid variablesReference %d.", setVarArguments.variablesReference),
                 ErrorCode.SET_VARIABLE_FAILURE);
         }
 
@@ -117,6 +119,8 @@ public class SetVariableRequestHandler implements IDebugRequestHandler {
                 ErrorCode.SET_VARIABLE_FAILURE,
                 e);
         }
+        // The new value may be observed from any cached object, drop them all.
+        context.getVariablesCache().clear();
         int referenceId = 0;
         if (newValue instanceof ObjectReference && VariableUtils.hasChildren(newValue, showStaticVariables)) {
             long threadId = ((VariableProxy) container).getThreadId();
@@ -117,6 +117,9 @@ public class StackTraceRequestHandler implements IDebugRequestHandler {
                     if (jdiLineNumber != lspFrame.line && lspFrame.source != null && lspFrame.source.path != null) {
                         decompiledClasses.add(lspFrame.source.path);
                     }
+                    if (stacktraceArgs.startFrame == 0 && i == 0) {
+                        prefetchStepInTargets(lspFrame.source, jdiFrame.lineNumber, context);
+                    }
                 }
             } catch (IncompatibleThreadStateException | IndexOutOfBoundsException | URISyntaxException
                     | AbsentInformationException | ObjectCollectedException
@@ -142,6 +145,29 @@ public class StackTraceRequestHandler implements IDebugRequestHandler {
         return CompletableFuture.completedFuture(response);
     }
 
+    /**
+     * Resolves the step-in targets of the stopped line in the background, the stack trace of the
+     * top frame is requested right after the thread stops, so a following stepInTargets request
+     * is answered from the cache of the source lookup provider.
+     */
+    private static void prefetchStepInTargets(Types.Source source, int lineNumber, IDebugAdapterContext context) {
+        if (source == null || source.path == null) {
+            return;
+        }
+
+        String sourceUri = AdapterUtils.convertPath(source.path, AdapterUtils.isUri(source.path), true);
+        if (sourceUri == null) {
+            return;
+        }
+
+        ISourceLookUpProvider sourceLookUpProvider = context.getProvider(ISourceLookUpProvider.class);
+        CompletableFuture.runAsync(() -> sourceLookUpProvider.findMethodInvocations(sourceUri, lineNumber))
+            .exceptionally(ex -> {
+                // ignore, the stepInTargets request resolves them again.
+                return null;
+            });
+    }
+
     private static List<StackFrameInfo> resolveStackFrameInfos(StackFrame[] frames, boolean async)
             throws AbsentInformationException, IncompatibleThreadStateException {
         List<StackFrameInfo> jdiFrames = new ArrayList<>();
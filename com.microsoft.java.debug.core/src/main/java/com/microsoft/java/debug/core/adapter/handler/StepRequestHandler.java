@@ -14,14 +14,19 @@ package com.microsoft.java.debug.core.adapter.handler;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import com.google.gson.JsonObject;
 import com.microsoft.java.debug.core.AsyncJdwpUtils;
 import com.microsoft.java.debug.core.DebugEvent;
+import com.microsoft.java.debug.core.DebugSettings;
+import com.microsoft.java.debug.core.DebugSettings.ReturnValueCapture;
 import com.microsoft.java.debug.core.DebugUtility;
 import com.microsoft.java.debug.core.IDebugSession;
 import com.microsoft.java.debug.core.JdiExceptionReference;
@@ -32,6 +37,7 @@ import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
 import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
 import com.microsoft.java.debug.core.adapter.ISourceLookUpProvider.MethodInvocation;
 import com.microsoft.java.debug.core.protocol.Events;
+import com.microsoft.java.debug.core.protocol.Events.TelemetryEvent;
 import com.microsoft.java.debug.core.protocol.Messages.Response;
 import com.microsoft.java.debug.core.protocol.Requests.Arguments;
 import com.microsoft.java.debug.core.protocol.Requests.Command;
@@ -63,6 +69,9 @@ import com.sun.jdi.request.StepRequest;
 import io.reactivex.disposables.Disposable;
 
 public class StepRequestHandler implements IDebugRequestHandler {
+    private static final int ACC_BRIDGE = 0x0040;
+
+    private volatile FilterDecisions filterDecisions = new FilterDecisions(null);
 
     @Override
     public List<Command> getTargetCommands() {
@@ -91,6 +100,7 @@ public class StepRequestHandler implements IDebugRequestHandler {
                 ThreadState threadState = new ThreadState();
                 threadState.threadId = threadId;
                 threadState.pendingStepType = command;
+                threadState.startAt = System.currentTimeMillis();
                 threadState.eventSubscription = context.getDebugSession().getEventHub().events()
                     .filter(debugEvent -> (debugEvent.event instanceof StepEvent && debugEvent.event.request().equals(threadState.pendingStepRequest))
                         || (debugEvent.event instanceof MethodExitEvent && debugEvent.event.request().equals(threadState.pendingMethodExitRequest))
@@ -112,8 +122,11 @@ public class StepRequestHandler implements IDebugRequestHandler {
                     threadState.pendingStepRequest = DebugUtility.createStepOverRequest(thread, null);
                 }
 
-                threadState.pendingMethodExitRequest = thread.virtualMachine().eventRequestManager().createMethodExitRequest();
-                threadState.pendingMethodExitRequest.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+                // The method exit events are expensive for the target VM, so they're only requested when the return value is captured.
+                if (shouldCaptureReturnValue(command)) {
+                    threadState.pendingMethodExitRequest = thread.virtualMachine().eventRequestManager().createMethodExitRequest();
+                    threadState.pendingMethodExitRequest.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+                }
 
                 threadState.targetStepIn = targetId > 0
                     ? (MethodInvocation) context.getRecyclableIdPool().getObjectById(targetId) : null;
@@ -124,6 +137,9 @@ public class StepRequestHandler implements IDebugRequestHandler {
                         try {
                             threadState.topFrame = getTopFrame(targetThread);
                             threadState.stepLocation = threadState.topFrame.location();
+                            if (threadState.pendingMethodExitRequest == null) {
+                                return;
+                            }
                             threadState.pendingMethodExitRequest.addClassFilter(threadState.stepLocation.declaringType());
                             if (targetThread.virtualMachine().canUseInstanceFilters()) {
                                 try {
@@ -140,10 +156,12 @@ public class StepRequestHandler implements IDebugRequestHandler {
                             throw new CompletionException(e1);
                         }
                     }));
-                    futures.add(AsyncJdwpUtils.runAsync(
-                        // JDWP Command: OR_IS_COLLECTED
-                        () -> threadState.pendingMethodExitRequest.addThreadFilter(targetThread)
-                    ));
+                    if (threadState.pendingMethodExitRequest != null) {
+                        futures.add(AsyncJdwpUtils.runAsync(
+                            // JDWP Command: OR_IS_COLLECTED
+                            () -> threadState.pendingMethodExitRequest.addThreadFilter(targetThread)
+                        ));
+                    }
                     futures.add(AsyncJdwpUtils.runAsync(() -> {
                         try {
                             // JDWP Command: TR_FRAME_COUNT
@@ -166,29 +184,36 @@ public class StepRequestHandler implements IDebugRequestHandler {
                         throw ex;
                     }
 
-                    // JDWP Command: ER_SET
-                    threadState.pendingMethodExitRequest.enable();
+                    if (threadState.pendingMethodExitRequest != null) {
+                        // JDWP Command: ER_SET
+                        threadState.pendingMethodExitRequest.enable();
+                    }
                 } else {
                     threadState.topFrame = getTopFrame(targetThread);
                     threadState.stackDepth = targetThread.frameCount();
                     threadState.stepLocation = threadState.topFrame.location();
-                    threadState.pendingMethodExitRequest.addThreadFilter(thread);
-                    threadState.pendingMethodExitRequest.addClassFilter(threadState.stepLocation.declaringType());
-                    if (targetThread.virtualMachine().canUseInstanceFilters()) {
-                        try {
-                            ObjectReference thisObject = threadState.topFrame.thisObject();
-                            if (thisObject != null) {
-                                threadState.pendingMethodExitRequest.addInstanceFilter(thisObject);
+                    if (threadState.pendingMethodExitRequest != null) {
+                        threadState.pendingMethodExitRequest.addThreadFilter(thread);
+                        threadState.pendingMethodExitRequest.addClassFilter(threadState.stepLocation.declaringType());
+                        if (targetThread.virtualMachine().canUseInstanceFilters()) {
+                            try {
+                                ObjectReference thisObject = threadState.topFrame.thisObject();
+                                if (thisObject != null) {
+                                    threadState.pendingMethodExitRequest.addInstanceFilter(thisObject);
+                                }
+                            } catch (Exception e) {
+                                // ignore
                             }
-                        } catch (Exception e) {
-                            // ignore
                         }
                     }
                     threadState.pendingStepRequest.enable();
-                    threadState.pendingMethodExitRequest.enable();
+                    if (threadState.pendingMethodExitRequest != null) {
+                        threadState.pendingMethodExitRequest.enable();
+                    }
                 }
 
                 context.getThreadCache().removeEventThread(thread.uniqueID());
+                context.getThreadCache().addResumedAloneThread(thread.uniqueID());
                 DebugUtility.resumeThread(thread);
                 ThreadsRequestHandler.checkThreadRunningAndRecycleIds(thread, context);
             } catch (IncompatibleThreadStateException ex) {
@@ -247,16 +272,18 @@ public class StepRequestHandler implements IDebugRequestHandler {
             ThreadReference thread = ((StepEvent) event).thread();
             long threadId = thread.uniqueID();
             threadState.deleteStepRequest(eventRequestManager);
-            if (isStepFiltersConfigured(context.getStepFilters()) || threadState.targetStepIn != null) {
+            threadState.stepEvents++;
+            boolean filteringEnabled = isStepFiltersConfigured(context.getStepFilters()) || threadState.targetStepIn != null;
+            if (filteringEnabled) {
                 try {
                     if (threadState.pendingStepType == Command.STEPIN || threadState.targetStepIn != null) {
-                        int currentStackDepth = thread.frameCount();
-                        StackFrame topFrame = getTopFrame(thread);
-                        Location currentStepLocation = topFrame.location();
+                        // The step event carries its location, the stack is only queried when the decision depends on it.
+                        Location currentStepLocation = ((StepEvent) event).location();
                         if (threadState.targetStepIn != null) {
-                            if (isStoppedAtSelectedMethod(topFrame, threadState.targetStepIn)) {
+                            if (isStoppedAtSelectedMethod(thread, currentStepLocation, threadState)) {
                                 // hit: send StoppedEvent
                             } else {
+                                int currentStackDepth = getStackDepth(thread, threadState);
                                 if (currentStackDepth > threadState.stackDepth) {
                                     context.getStepResultManager().removeMethodResult(threadId);
                                     threadState.pendingStepRequest = DebugUtility.createStepOutRequest(thread,
@@ -280,25 +307,29 @@ public class StepRequestHandler implements IDebugRequestHandler {
                                     }
                                 }
                             }
-                        } else if (shouldFilterLocation(threadState.stepLocation, currentStepLocation, context)
-                                || shouldDoExtraStepInto(threadState.stackDepth, threadState.stepLocation,
-                                        currentStackDepth, currentStepLocation)) {
-                            // If the ending step location is filtered, or same as the original location where the step into operation is originated,
-                            // do another step of the same kind.
-                            context.getStepResultManager().removeMethodResult(threadId);
-                            String[] allowedClasses = context.getStepFilters().allowClasses;
-                            if (currentStackDepth > threadState.stackDepth) {
-                                threadState.pendingStepRequest = DebugUtility.createStepOutRequest(thread,
-                                    allowedClasses,
-                                    context.getStepFilters().skipClasses);
-                            } else {
-                                threadState.pendingStepRequest = DebugUtility.createStepIntoRequest(thread,
-                                        allowedClasses,
-                                    context.getStepFilters().skipClasses);
+                        } else {
+                            boolean filtered = shouldFilterLocation(threadState.stepLocation, currentStepLocation, context);
+                            if (filtered || isSameLine(threadState.stepLocation, currentStepLocation)) {
+                                int currentStackDepth = getStackDepth(thread, threadState);
+                                // If the ending step location is filtered, or same as the original location where the step into operation is originated,
+                                // do another step of the same kind.
+                                if (filtered || currentStackDepth == threadState.stackDepth) {
+                                    context.getStepResultManager().removeMethodResult(threadId);
+                                    String[] allowedClasses = context.getStepFilters().allowClasses;
+                                    if (currentStackDepth > threadState.stackDepth) {
+                                        threadState.pendingStepRequest = DebugUtility.createStepOutRequest(thread,
+                                            allowedClasses,
+                                            context.getStepFilters().skipClasses);
+                                    } else {
+                                        threadState.pendingStepRequest = DebugUtility.createStepIntoRequest(thread,
+                                            allowedClasses,
+                                            context.getStepFilters().skipClasses);
+                                    }
+                                    threadState.pendingStepRequest.enable();
+                                    debugEvent.shouldResume = true;
+                                    return;
+                                }
                             }
-                            threadState.pendingStepRequest.enable();
-                            debugEvent.shouldResume = true;
-                            return;
                         }
                     }
                 } catch (IncompatibleThreadStateException | IndexOutOfBoundsException ex) {
@@ -312,6 +343,7 @@ public class StepRequestHandler implements IDebugRequestHandler {
             context.getThreadCache().addEventThread(thread, "step");
             context.getProtocolServer().sendEvent(new Events.StoppedEvent("step", thread.uniqueID()));
             debugEvent.shouldResume = false;
+            sendStepTelemetry(threadState, context);
         } else if (event instanceof MethodExitEvent) {
             MethodExitEvent methodExitEvent = (MethodExitEvent) event;
             long threadId = methodExitEvent.thread().uniqueID();
@@ -328,13 +360,17 @@ public class StepRequestHandler implements IDebugRequestHandler {
         }
     }
 
-    private boolean isStoppedAtSelectedMethod(StackFrame frame, MethodInvocation selectedMethod) {
-        Method method = frame.location().method();
+    private boolean isStoppedAtSelectedMethod(ThreadReference thread, Location location, ThreadState threadState)
+            throws IncompatibleThreadStateException {
+        MethodInvocation selectedMethod = threadState.targetStepIn;
+        Method method = location.method();
         if (method != null
             && Objects.equals(method.name(), selectedMethod.methodName)
             && (Objects.equals(method.signature(), selectedMethod.methodSignature)
                 || Objects.equals(method.genericSignature(), selectedMethod.methodGenericSignature))) {
-            ObjectReference thisObject = frame.thisObject();
+            // The top frame is only needed to check the runtime type of the candidate method.
+            threadState.jdwpQueries++;
+            ObjectReference thisObject = getTopFrame(thread).thisObject();
             ReferenceType currentType = (thisObject == null) ? method.declaringType() : thisObject.referenceType();
             if ("java.lang.Object".equals(selectedMethod.declaringTypeName)) {
                 return true;
@@ -401,29 +437,30 @@ public class StepRequestHandler implements IDebugRequestHandler {
         return !shouldFilterMethod(originalLocation.method(), context) && shouldFilterMethod(currentLocation.method(), context);
     }
 
+    /**
+     * The filter decision of a method only depends on the step filters, so it's computed once per method
+     * and reused by all the step events until the step filters change.
+     */
     private boolean shouldFilterMethod(Method method, IDebugAdapterContext context) {
-        return (context.getStepFilters().skipStaticInitializers && method.isStaticInitializer())
-                || (context.getStepFilters().skipSynthetics && method.isSynthetic())
-                || (context.getStepFilters().skipConstructors && method.isConstructor());
+        StepFilters stepFilters = context.getStepFilters();
+        FilterDecisions decisions = filterDecisions;
+        if (decisions.stepFilters != stepFilters) {
+            decisions = new FilterDecisions(stepFilters);
+            filterDecisions = decisions;
+        }
+
+        return decisions.decisions.computeIfAbsent(method, key ->
+                (stepFilters.skipStaticInitializers && key.isStaticInitializer())
+                || (stepFilters.skipSynthetics && (key.isSynthetic() || (key.modifiers() & ACC_BRIDGE) != 0))
+                || (stepFilters.skipConstructors && key.isConstructor()));
     }
 
     /**
-     * Check if the current top stack is same as the original top stack and if we
-     * are not in target step in we should not request an extra step in. But if we
-     * are processing a target step in, we only check if the original and current
-     * location are same. If they are not same we request a extra step in.
-     *
-     * @throws IncompatibleThreadStateException
-     *                                          if the thread is not suspended in
-     *                                          the target VM.
+     * Check if the current location is at the same line of the same method as the original
+     * location. If it's also at the same stack depth, an extra step in is requested.
      */
-    private boolean shouldDoExtraStepInto(int originalStackDepth, Location originalLocation, int currentStackDepth,
-            Location currentLocation)
-            throws IncompatibleThreadStateException {
-        if (originalStackDepth != currentStackDepth) {
-            return false;
-        }
-        if (originalLocation == null) {
+    private boolean isSameLine(Location originalLocation, Location currentLocation) {
+        if (originalLocation == null || currentLocation == null) {
             return false;
         }
 
@@ -469,6 +506,39 @@ public class StepRequestHandler implements IDebugRequestHandler {
         return thread.frame(0);
     }
 
+    private boolean shouldCaptureReturnValue(Command command) {
+        ReturnValueCapture mode = DebugSettings.getCurrent().returnValueCapture;
+        if (mode == null) {
+            return true;
+        }
+
+        switch (mode) {
+            case OFF:
+                return false;
+            case STEP_OUT:
+                return command == Command.STEPOUT;
+            default:
+                return true;
+        }
+    }
+
+    private int getStackDepth(ThreadReference thread, ThreadState threadState) throws IncompatibleThreadStateException {
+        threadState.jdwpQueries++;
+        // JDWP Command: TR_FRAME_COUNT
+        return thread.frameCount();
+    }
+
+    private void sendStepTelemetry(ThreadState threadState, IDebugAdapterContext context) {
+        JsonObject properties = new JsonObject();
+        properties.addProperty("command", threadState.pendingStepType.getName());
+        properties.addProperty("duration", System.currentTimeMillis() - threadState.startAt);
+        properties.addProperty("stepEvents", threadState.stepEvents);
+        properties.addProperty("stackQueries", threadState.jdwpQueries);
+        properties.addProperty("targetStepIn", threadState.targetStepIn != null);
+        properties.addProperty("returnValueCapture", String.valueOf(DebugSettings.getCurrent().returnValueCapture));
+        context.getProtocolServer().sendEvent(new TelemetryEvent("dap", properties));
+    }
+
     class ThreadState {
         long threadId = -1;
         Command pendingStepType;
@@ -479,9 +549,14 @@ public class StepRequestHandler implements IDebugRequestHandler {
         Location stepLocation = null;
         Disposable eventSubscription = null;
         MethodInvocation targetStepIn = null;
+        long startAt;
+        int stepEvents = 0;
+        int jdwpQueries = 0;
 
         public void deleteMethodExitRequest(EventRequestManager manager) {
-            DebugUtility.deleteEventRequestSafely(manager, this.pendingMethodExitRequest);
+            if (this.pendingMethodExitRequest != null) {
+                DebugUtility.deleteEventRequestSafely(manager, this.pendingMethodExitRequest);
+            }
             this.pendingMethodExitRequest = null;
         }
 
@@ -490,4 +565,13 @@ public class StepRequestHandler implements IDebugRequestHandler {
             this.pendingStepRequest = null;
         }
     }
+
+    private static final class FilterDecisions {
+        final StepFilters stepFilters;
+        final Map<Method, Boolean> decisions = new ConcurrentHashMap<>();
+
+        FilterDecisions(StepFilters stepFilters) {
+            this.stepFilters = stepFilters;
+        }
+    }
 }
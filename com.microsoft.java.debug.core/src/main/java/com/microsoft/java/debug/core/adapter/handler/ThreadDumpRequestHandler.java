@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.handler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.microsoft.java.debug.core.AsyncJdwpUtils;
+import com.microsoft.java.debug.core.Configuration;
+import com.microsoft.java.debug.core.adapter.AdapterUtils;
+import com.microsoft.java.debug.core.adapter.ErrorCode;
+import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
+import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
+import com.microsoft.java.debug.core.protocol.Events;
+import com.microsoft.java.debug.core.protocol.Messages.Response;
+import com.microsoft.java.debug.core.protocol.Requests.Arguments;
+import com.microsoft.java.debug.core.protocol.Requests.Command;
+import com.microsoft.java.debug.core.protocol.Requests.ThreadDumpArguments;
+import com.microsoft.java.debug.core.protocol.Responses;
+import com.sun.jdi.AbsentInformationException;
+import com.sun.jdi.IncompatibleThreadStateException;
+import com.sun.jdi.Location;
+import com.sun.jdi.MonitorInfo;
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.StackFrame;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VMDisconnectedException;
+import com.sun.jdi.VirtualMachine;
+
+/**
+ * Exports a jstack-like dump of all the threads known by the debugger, including the virtual threads
+ * only seen from the thread events. The VM is suspended for a consistent snapshot, the threads are
+ * dumped in batches fetched in parallel on the JDWP thread pool, and each batch is written out before
+ * the next one is fetched, so the adapter never holds the whole dump in memory.
+ */
+public class ThreadDumpRequestHandler implements IDebugRequestHandler {
+    protected static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
+    private static final int BATCH_SIZE = 64;
+
+    @Override
+    public List<Command> getTargetCommands() {
+        return Arrays.asList(Command.THREADDUMP);
+    }
+
+    @Override
+    public CompletableFuture<Response> handle(Command command, Arguments arguments, Response response,
+            IDebugAdapterContext context) {
+        if (context.getDebugSession() == null) {
+            return AdapterUtils.createAsyncErrorResponse(response, ErrorCode.EMPTY_DEBUG_SESSION,
+                    "Debug Session doesn't exist.");
+        }
+
+        String outputFile = StringUtils.trimToNull(((ThreadDumpArguments) arguments).outputFile);
+        return CompletableFuture.supplyAsync(() -> {
+            VirtualMachine vm = context.getDebugSession().getVM();
+            try (Writer writer = outputFile == null ? new ConsoleWriter(context) : Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+                // Suspends the VM for a consistent snapshot, the nested suspend keeps the suspend count of the stopped threads.
+                vm.suspend();
+                int totalThreads;
+                try {
+                    totalThreads = dump(vm, writer, context);
+                } finally {
+                    vm.resume();
+                }
+                response.body = new Responses.ThreadDumpResponseBody(totalThreads, outputFile);
+                return response;
+            } catch (VMDisconnectedException e) {
+                throw AdapterUtils.createCompletionException("Failed to dump the threads because the VM is disconnected.",
+                    ErrorCode.VM_TERMINATED);
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.SEVERE, String.format("Failed to dump the threads: %s", e.toString()), e);
+                throw AdapterUtils.createCompletionException(
+                    String.format("Failed to dump the threads. Reason: %s", e.toString()),
+                    ErrorCode.THREAD_DUMP_FAILURE,
+                    e);
+            }
+        });
+    }
+
+    private static int dump(VirtualMachine vm, Writer writer, IDebugAdapterContext context) throws IOException {
+        context.getThreadCache().resetThreads(context.getDebugSession().getAllThreads());
+        List<ThreadReference> threads = context.getThreadCache().visibleThreads(context);
+        boolean canGetMonitorFrames = vm.canGetMonitorFrameInfo();
+        boolean canGetContendedMonitor = vm.canGetCurrentContendedMonitor();
+        // The source names are shared by the frames of all the threads, JDI caches the rest of the frame metadata.
+        Map<ReferenceType, String> sourceNames = new ConcurrentHashMap<>();
+        writer.write(String.format("Full thread dump %s (%s):%n%n", vm.name(), vm.version()));
+        for (int start = 0; start < threads.size(); start += BATCH_SIZE) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (ThreadReference thread : threads.subList(start, Math.min(start + BATCH_SIZE, threads.size()))) {
+                futures.add(AsyncJdwpUtils.supplyAsync(() -> dumpThread(thread, canGetMonitorFrames, canGetContendedMonitor,
+                        sourceNames, context)));
+            }
+
+            StringBuilder batch = new StringBuilder();
+            for (String threadDump : AsyncJdwpUtils.await(futures)) {
+                batch.append(threadDump);
+            }
+            writer.write(batch.toString());
+            writer.flush();
+        }
+        return threads.size();
+    }
+
+    private static String dumpThread(ThreadReference thread, boolean canGetMonitorFrames, boolean canGetContendedMonitor,
+            Map<ReferenceType, String> sourceNames, IDebugAdapterContext context) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            String name = context.getThreadCache().getThreadName(thread.uniqueID());
+            builder.append('"').append(name == null ? thread.name() : name).append("\" #").append(thread.uniqueID()).append('\n');
+            builder.append("   java.lang.Thread.State: ").append(getThreadState(thread.status())).append('\n');
+            List<StackFrame> frames = thread.frames();
+            List<MonitorInfo> ownedMonitors = canGetMonitorFrames ? thread.ownedMonitorsAndFrames() : new ArrayList<>();
+            ObjectReference contendedMonitor = canGetContendedMonitor ? thread.currentContendedMonitor() : null;
+            for (int depth = 0; depth < frames.size(); depth++) {
+                Location location = frames.get(depth).location();
+                builder.append("\tat ").append(formatLocation(location, sourceNames)).append('\n');
+                if (depth == 0 && contendedMonitor != null) {
+                    builder.append("\t- waiting to lock ").append(describe(contendedMonitor)).append('\n');
+                }
+                for (MonitorInfo monitor : ownedMonitors) {
+                    if (monitor.stackDepth() == depth) {
+                        builder.append("\t- locked ").append(describe(monitor.monitor())).append('\n');
+                    }
+                }
+            }
+        } catch (IncompatibleThreadStateException | ObjectCollectedException e) {
+            // The thread is terminated or it's not suspended.
+            builder.append("\t<").append(e instanceof ObjectCollectedException ? "terminated" : "not suspended").append(">\n");
+        }
+        return builder.append('\n').toString();
+    }
+
+    private static String formatLocation(Location location, Map<ReferenceType, String> sourceNames) {
+        ReferenceType type = location.declaringType();
+        String sourceName = sourceNames.computeIfAbsent(type, key -> {
+            try {
+                return key.sourceName();
+            } catch (AbsentInformationException e) {
+                return "";
+            }
+        });
+        return formatFrame(type.name(), location.method().name(), StringUtils.trimToNull(sourceName), location.lineNumber(),
+                location.method().isNative());
+    }
+
+    /**
+     * Formats a frame the same way as {@link java.lang.StackTraceElement#toString()}.
+     */
+    static String formatFrame(String typeName, String methodName, String sourceName, int lineNumber, boolean isNative) {
+        String source;
+        if (isNative) {
+            source = "Native Method";
+        } else if (sourceName == null) {
+            source = "Unknown Source";
+        } else {
+            source = lineNumber >= 0 ? sourceName + ":" + lineNumber : sourceName;
+        }
+        return String.format("%s.%s(%s)", typeName, methodName, source);
+    }
+
+    static String getThreadState(int status) {
+        switch (status) {
+            case ThreadReference.THREAD_STATUS_RUNNING:
+                return "RUNNABLE";
+            case ThreadReference.THREAD_STATUS_SLEEPING:
+                return "TIMED_WAITING (sleeping)";
+            case ThreadReference.THREAD_STATUS_MONITOR:
+                return "BLOCKED (on object monitor)";
+            case ThreadReference.THREAD_STATUS_WAIT:
+                return "WAITING (on object monitor)";
+            case ThreadReference.THREAD_STATUS_NOT_STARTED:
+                return "NEW";
+            case ThreadReference.THREAD_STATUS_ZOMBIE:
+                return "TERMINATED";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+    private static String describe(ObjectReference obj) {
+        try {
+            return String.format("<%s@%d>", obj.referenceType().name(), obj.uniqueID());
+        } catch (ObjectCollectedException e) {
+            return String.format("<Object@%d>", obj.uniqueID());
+        }
+    }
+
+    /**
+     * Sends each written chunk of the thread dump as a console output event.
+     */
+    private static final class ConsoleWriter extends Writer {
+        private final IDebugAdapterContext context;
+
+        private ConsoleWriter(IDebugAdapterContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            write(new String(cbuf, off, len));
+        }
+
+        @Override
+        public void write(String str) {
+            if (!str.isEmpty()) {
+                context.getProtocolServer().sendEvent(Events.OutputEvent.createConsoleOutput(str));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -14,6 +14,7 @@ package com.microsoft.java.debug.core.adapter.handler;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -29,6 +30,7 @@ import com.microsoft.java.debug.core.adapter.ErrorCode;
 import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
 import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
 import com.microsoft.java.debug.core.adapter.IEvaluationProvider;
+import com.microsoft.java.debug.core.adapter.ThreadCache;
 import com.microsoft.java.debug.core.protocol.Events;
 import com.microsoft.java.debug.core.protocol.Messages.Response;
 import com.microsoft.java.debug.core.protocol.Requests;
@@ -41,6 +43,7 @@ import com.microsoft.java.debug.core.protocol.Requests.ThreadsArguments;
 import com.microsoft.java.debug.core.protocol.Responses;
 import com.microsoft.java.debug.core.protocol.Types;
 import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ThreadGroupReference;
 import com.sun.jdi.ThreadReference;
 import com.sun.jdi.VMDisconnectedException;
 
@@ -83,10 +86,24 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
 
     private CompletableFuture<Response> threads(Requests.ThreadsArguments arguments, Response response, IDebugAdapterContext context) {
         ArrayList<Types.Thread> threads = new ArrayList<>();
+        Integer totalThreads = null;
         try {
-            List<ThreadReference> allThreads = context.getThreadCache().visibleThreads(context);
-            context.getThreadCache().resetThreads(allThreads);
-            allThreads = allThreads.stream().filter((thread) -> !context.getThreadCache().isDeathThread(thread.uniqueID())).collect(Collectors.toList());
+            ThreadCache threadCache = context.getThreadCache();
+            // Resync the thread registry with the VM, the other requests rely on the thread events.
+            threadCache.resetThreads(context.getDebugSession().getAllThreads());
+            List<ThreadReference> allThreads = threadCache.visibleThreads(context);
+            allThreads = allThreads.stream().filter((thread) -> !threadCache.isDeathThread(thread.uniqueID())).collect(Collectors.toList());
+            if (arguments != null && (arguments.suspendedOnly || StringUtils.isNotBlank(arguments.threadGroup))) {
+                allThreads = filterThreads(allThreads, arguments, context);
+                totalThreads = allThreads.size();
+            }
+            if (arguments != null && (arguments.startThread > 0 || arguments.maxThreads > 0)) {
+                // Only the names of the threads in the page are resolved.
+                totalThreads = allThreads.size();
+                int from = Math.min(Math.max(arguments.startThread, 0), allThreads.size());
+                int to = arguments.maxThreads > 0 ? Math.min(from + arguments.maxThreads, allThreads.size()) : allThreads.size();
+                allThreads = allThreads.subList(from, to);
+            }
             List<ThreadInfo> jdiThreads = resolveThreadInfos(allThreads, context);
             for (ThreadInfo jdiThread : jdiThreads) {
                 String name = StringUtils.isBlank(jdiThread.name) ? String.valueOf(jdiThread.thread.uniqueID()) : jdiThread.name;
@@ -96,27 +113,78 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
             // allThreads may throw VMDisconnectedException when VM terminates and thread.name() may throw ObjectCollectedException
             // when the thread is exiting.
         }
-        response.body = new Responses.ThreadsResponseBody(threads);
+        Responses.ThreadsResponseBody body = new Responses.ThreadsResponseBody(threads);
+        body.totalThreads = totalThreads;
+        response.body = body;
         return CompletableFuture.completedFuture(response);
     }
 
+    private static List<ThreadReference> filterThreads(List<ThreadReference> threads, Requests.ThreadsArguments arguments,
+            IDebugAdapterContext context) {
+        boolean[] accepted = new boolean[threads.size()];
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threads.size(); i++) {
+            final int index = i;
+            ThreadReference thread = threads.get(i);
+            Runnable check = () -> {
+                try {
+                    accepted[index] = (!arguments.suspendedOnly || thread.isSuspended())
+                        && (StringUtils.isBlank(arguments.threadGroup) || arguments.threadGroup.equals(getThreadGroupName(thread, context)));
+                } catch (ObjectCollectedException ex) {
+                    // the thread is exiting.
+                }
+            };
+            if (context.asyncJDWP()) {
+                futures.add(AsyncJdwpUtils.runAsync(check));
+            } else {
+                check.run();
+            }
+        }
+
+        AsyncJdwpUtils.await(futures);
+        List<ThreadReference> result = new ArrayList<>();
+        for (int i = 0; i < threads.size(); i++) {
+            if (accepted[i]) {
+                result.add(threads.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static String getThreadGroupName(ThreadReference thread, IDebugAdapterContext context) {
+        // A thread never moves to another thread group, cache the group name until the thread dies.
+        String groupName = context.getThreadCache().getThreadGroupName(thread.uniqueID());
+        if (groupName == null) {
+            ThreadGroupReference group = thread.threadGroup();
+            groupName = group == null ? "" : group.name();
+            context.getThreadCache().setThreadGroupName(thread.uniqueID(), groupName);
+        }
+        return groupName;
+    }
+
     private static List<ThreadInfo> resolveThreadInfos(List<ThreadReference> allThreads, IDebugAdapterContext context) {
         List<ThreadInfo> threadInfos = new ArrayList<>(allThreads.size());
         List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<Runnable> refreshTasks = new ArrayList<>();
+        ThreadCache threadCache = context.getThreadCache();
         for (ThreadReference thread : allThreads) {
             ThreadInfo threadInfo = new ThreadInfo(thread);
             long threadId = thread.uniqueID();
-            if (context.getThreadCache().getThreadName(threadId) != null) {
-                threadInfo.name = context.getThreadCache().getThreadName(threadId);
+            if (threadCache.getThreadName(threadId) != null) {
+                threadInfo.name = threadCache.getThreadName(threadId);
+                if (threadCache.isThreadNameStale(threadId)) {
+                    // The thread may have been renamed while running, refresh it for the next request rather than waiting for it.
+                    refreshTasks.add(() -> cacheThreadName(thread, context));
+                }
             } else {
                 if (context.asyncJDWP()) {
                     futures.add(AsyncJdwpUtils.runAsync(() -> {
                         threadInfo.name = threadInfo.thread.name();
-                        context.getThreadCache().setThreadName(threadId, threadInfo.name);
+                        threadCache.setThreadName(threadId, threadInfo.name);
                     }));
                 } else {
                     threadInfo.name = threadInfo.thread.name();
-                    context.getThreadCache().setThreadName(threadId, threadInfo.name);
+                    threadCache.setThreadName(threadId, threadInfo.name);
                 }
             }
 
@@ -124,9 +192,23 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
         }
 
         AsyncJdwpUtils.await(futures);
+        if (!refreshTasks.isEmpty()) {
+            AsyncJdwpUtils.runAsync(refreshTasks);
+        }
         return threadInfos;
     }
 
+    /**
+     * Resolves the name of the thread and caches it, the failures are ignored since the name is resolved again on demand.
+     */
+    public static void cacheThreadName(ThreadReference thread, IDebugAdapterContext context) {
+        try {
+            context.getThreadCache().setThreadName(thread.uniqueID(), thread.name());
+        } catch (ObjectCollectedException | VMDisconnectedException ex) {
+            // the thread or the VM is terminated.
+        }
+    }
+
     private CompletableFuture<Response> pause(Requests.PauseArguments arguments, Response response, IDebugAdapterContext context) {
         ThreadReference thread = context.getThreadCache().getThread(arguments.threadId);
         if (thread == null) {
@@ -165,6 +247,7 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
             context.getExceptionManager().removeException(arguments.threadId);
             allThreadsContinued = false;
             context.getThreadCache().clearThreadStoppedState(arguments.threadId);
+            context.getThreadCache().addResumedAloneThread(arguments.threadId);
             DebugUtility.resumeThread(thread);
             context.getStackFrameManager().clearStackFrames(thread);
             checkThreadRunningAndRecycleIds(thread, context);
@@ -192,10 +275,20 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
     }
 
     private CompletableFuture<Response> resumeOthers(Requests.ThreadOperationArguments arguments, Response response, IDebugAdapterContext context) {
-        List<ThreadReference> threads = context.getThreadCache().visibleThreads(context);
+        ThreadCache threadCache = context.getThreadCache();
+        List<ThreadReference> threads = threadCache.visibleThreads(context);
+        Set<Long> selfSuspendedThreads = threadCache.getSelfSuspendedThreads();
+        int vmSuspends = getVMSuspendCount(threads, selfSuspendedThreads, threadCache);
+        if (vmSuspends > 0) {
+            resumeOthersWithVM(arguments.threadId, threads, selfSuspendedThreads, vmSuspends, context);
+            return CompletableFuture.completedFuture(response);
+        }
+
         List<CompletableFuture<Void>> futures = new ArrayList<>();
         for (ThreadReference thread : threads) {
-            if (thread.uniqueID() == arguments.threadId) {
+            // If the VM is not suspended, only the threads suspended on their own need to be resumed.
+            // If the VM-wide suspend count is unknown, resume every other thread by its own suspend count.
+            if (thread.uniqueID() == arguments.threadId || (vmSuspends == 0 && !selfSuspendedThreads.contains(thread.uniqueID()))) {
                 continue;
             }
 
@@ -210,6 +303,48 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
         return CompletableFuture.completedFuture(response);
     }
 
+    /**
+     * Resumes the other threads with VirtualMachine.resume() rather than one by one, the requesting thread is
+     * suspended once more beforehand to keep it suspended.
+     */
+    private void resumeOthersWithVM(long threadId, List<ThreadReference> threads, Set<Long> selfSuspendedThreads, int vmSuspends,
+            IDebugAdapterContext context) {
+        ThreadCache threadCache = context.getThreadCache();
+        ThreadReference requestingThread = threadCache.getThread(threadId);
+        try {
+            for (int i = 0; requestingThread != null && i < vmSuspends; i++) {
+                requestingThread.suspend();
+            }
+        } catch (ObjectCollectedException ex) {
+            // the thread is garbage collected.
+        }
+
+        // The requesting thread keeps the extra suspends on its own.
+        if (requestingThread != null) {
+            threadCache.addSelfSuspendedThread(threadId);
+        }
+        selfSuspendedThreads.remove(threadId);
+        trimSuspendCounts(threads.stream().filter(thread -> selfSuspendedThreads.contains(thread.uniqueID()))
+            .collect(Collectors.toList()), vmSuspends, context);
+        for (int i = 0; i < vmSuspends; i++) {
+            context.getDebugSession().getVM().resume();
+        }
+
+        for (ThreadReference thread : threads) {
+            long id = thread.uniqueID();
+            if (id == threadId) {
+                continue;
+            }
+
+            threadCache.clearThreadStoppedState(id);
+            threadCache.removeEventThread(id);
+            context.getExceptionManager().removeException(id);
+            context.getProtocolServer().sendEvent(new Events.ContinuedEvent(id));
+            context.getStackFrameManager().clearStackFrames(thread);
+            checkThreadRunningAndRecycleIds(thread, context);
+        }
+    }
+
     private CompletableFuture<Response> pauseAll(Requests.ThreadOperationArguments arguments, Response response, IDebugAdapterContext context) {
         context.getDebugSession().suspend();
         context.getProtocolServer().sendEvent(new Events.StoppedEvent("pause", arguments.threadId, true));
@@ -218,20 +353,46 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
     }
 
     private CompletableFuture<Response> pauseOthers(Requests.ThreadOperationArguments arguments, Response response, IDebugAdapterContext context) {
-        List<ThreadReference> threads = context.getThreadCache().visibleThreads(context);
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        ThreadCache threadCache = context.getThreadCache();
+        List<ThreadReference> threads = threadCache.visibleThreads(context);
+        ThreadReference requestingThread = threadCache.getThread(arguments.threadId);
+        Set<Long> selfSuspendedThreads = threadCache.getSelfSuspendedThreads();
+        // Suspend the whole VM and then resume the requesting thread, rather than suspending the other threads one by one.
+        context.getDebugSession().suspend();
+        try {
+            if (requestingThread != null) {
+                threadCache.addResumedAloneThread(arguments.threadId);
+                context.getVariablesCache().invalidate(arguments.threadId);
+                requestingThread.resume();
+            }
+        } catch (ObjectCollectedException ex) {
+            // the thread is garbage collected.
+        }
+
+        // The threads suspended on their own, e.g. stopped at a breakpoint or a step, were suspended already,
+        // take back the extra suspend so that a single resume still lets them run.
         for (ThreadReference thread : threads) {
-            if (thread.uniqueID() == arguments.threadId) {
-                continue;
+            long threadId = thread.uniqueID();
+            if (threadId != arguments.threadId && selfSuspendedThreads.contains(threadId)) {
+                try {
+                    thread.resume();
+                } catch (ObjectCollectedException ex) {
+                    // the thread is garbage collected.
+                }
             }
+        }
 
-            if (context.asyncJDWP()) {
-                futures.add(AsyncJdwpUtils.runAsync(() -> pauseThread(thread, context)));
-            } else {
-                pauseThread(thread, context);
+        for (ThreadReference thread : threads) {
+            long threadId = thread.uniqueID();
+            // The threads with a stopped reason were suspended already.
+            if (threadId == arguments.threadId || threadCache.getThreadStoppedReason(threadId) != null) {
+                continue;
             }
+
+            context.getStepResultManager().removeMethodResult(threadId);
+            context.getProtocolServer().sendEvent(new Events.StoppedEvent("pause", threadId));
+            threadCache.setThreadStoppedReason(threadId, "pause");
         }
-        AsyncJdwpUtils.await(futures);
         return CompletableFuture.completedFuture(response);
     }
 
@@ -239,50 +400,101 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
      * Recycle the related ids owned by the specified thread.
      */
     public static void checkThreadRunningAndRecycleIds(ThreadReference thread, IDebugAdapterContext context) {
+        context.getThreadCache().invalidateThreadName(thread.uniqueID());
         try {
             IEvaluationProvider engine = context.getProvider(IEvaluationProvider.class);
             engine.clearState(thread);
             context.getRecyclableIdPool().removeObjectsByOwner(thread.uniqueID());
+            context.getVariablesCache().invalidate(thread.uniqueID());
         } catch (VMDisconnectedException ex) {
             // isSuspended may throw VMDisconnectedException when the VM terminates
             context.getRecyclableIdPool().removeAllObjects();
+            context.getVariablesCache().clear();
         } catch (ObjectCollectedException collectedEx) {
             // isSuspended may throw ObjectCollectedException when the thread terminates
             context.getRecyclableIdPool().removeObjectsByOwner(thread.uniqueID());
+            context.getVariablesCache().invalidate(thread.uniqueID());
         }
     }
 
     private void resumeVM(IDebugAdapterContext context) {
-        List<ThreadReference> visibleThreads = context.getThreadCache().visibleThreads(context);
-        context.getThreadCache().clearEventThread();
+        ThreadCache threadCache = context.getThreadCache();
+        List<ThreadReference> visibleThreads = threadCache.visibleThreads(context);
+        Set<Long> selfSuspendedThreads = threadCache.getSelfSuspendedThreads();
+        int vmSuspends = getVMSuspendCount(visibleThreads, selfSuspendedThreads, threadCache);
+        threadCache.clearEventThread();
 
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
         /**
          * To ensure that all threads are fully resumed when the VM is resumed, make sure the suspend count
-         * of each thread is no larger than 1.
-         * Notes: Decrementing the thread' suspend count to 1 is on purpose, because it doesn't break the
-         * the thread's suspend state, and also make sure the next instruction vm.resume() is able to resume
-         * all threads fully.
+         * of each thread is no larger than the VM-wide suspends, then resume the VM the same number of times.
+         * Only the threads suspended on their own may have more suspends, so the suspend counts of the other
+         * threads are not queried. If the VM-wide suspend count is unknown, trim every thread to a single
+         * suspend and resume the VM once.
          */
-        Consumer<ThreadReference> resumeThread = (ThreadReference tr) -> {
+        List<ThreadReference> threadsToTrim = visibleThreads;
+        if (vmSuspends > 0) {
+            threadsToTrim = visibleThreads.stream().filter(thread -> selfSuspendedThreads.contains(thread.uniqueID()))
+                .collect(Collectors.toList());
+        } else {
+            vmSuspends = 1;
+        }
+        trimSuspendCounts(threadsToTrim, vmSuspends, context);
+        for (int i = 0; i < vmSuspends; i++) {
+            context.getDebugSession().getVM().resume();
+        }
+        threadCache.clearResumedAloneThreads();
+        threadCache.invalidateThreadNames();
+        context.getVariablesCache().clear();
+    }
+
+    /**
+     * Returns the VM-wide suspend count, i.e. the suspend count of a thread which is not suspended on its own,
+     * or -1 if it's unknown because there is no such thread or a thread has been resumed on its own since
+     * the VM was last fully resumed.
+     */
+    private static int getVMSuspendCount(List<ThreadReference> threads, Set<Long> selfSuspendedThreads, ThreadCache threadCache) {
+        if (!threadCache.isVMSuspendCountKnown()) {
+            return -1;
+        }
+
+        for (ThreadReference thread : threads) {
+            if (selfSuspendedThreads.contains(thread.uniqueID())) {
+                continue;
+            }
+
+            try {
+                return thread.suspendCount();
+            } catch (ObjectCollectedException ex) {
+                // the thread is garbage collected, try the next one.
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Decrements the suspend count of the given threads to the VM-wide suspends.
+     */
+    private static void trimSuspendCounts(List<ThreadReference> threads, int vmSuspends, IDebugAdapterContext context) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        Consumer<ThreadReference> trimThread = (ThreadReference tr) -> {
             try {
-                while (tr.suspendCount() > 1) {
+                while (tr.suspendCount() > vmSuspends) {
                     tr.resume();
                 }
             } catch (ObjectCollectedException ex) {
                 // Ignore it if the thread is garbage collected.
             }
         };
-        for (ThreadReference tr : visibleThreads) {
+        for (ThreadReference tr : threads) {
             if (context.asyncJDWP()) {
-                futures.add(AsyncJdwpUtils.runAsync(() -> resumeThread.accept(tr)));
+                futures.add(AsyncJdwpUtils.runAsync(() -> trimThread.accept(tr)));
             } else {
-                resumeThread.accept(tr);
+                trimThread.accept(tr);
             }
         }
 
         AsyncJdwpUtils.await(futures);
-        context.getDebugSession().getVM().resume();
     }
 
     private void resumeThread(ThreadReference thread, IDebugAdapterContext context) {
@@ -292,6 +504,7 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
             if (suspends > 0) {
                 long threadId = thread.uniqueID();
                 context.getExceptionManager().removeException(threadId);
+                context.getThreadCache().addResumedAloneThread(threadId);
                 DebugUtility.resumeThread(thread, suspends);
                 context.getProtocolServer().sendEvent(new Events.ContinuedEvent(threadId));
                 context.getStackFrameManager().clearStackFrames(thread);
@@ -310,6 +523,7 @@ public class ThreadsRequestHandler implements IDebugRequestHandler {
                 long threadId = thread.uniqueID();
                 context.getStepResultManager().removeMethodResult(threadId);
                 thread.suspend();
+                context.getThreadCache().addSelfSuspendedThread(threadId);
                 context.getProtocolServer().sendEvent(new Events.StoppedEvent("pause", threadId));
                 context.getThreadCache().setThreadStoppedReason(threadId, "pause");
             }
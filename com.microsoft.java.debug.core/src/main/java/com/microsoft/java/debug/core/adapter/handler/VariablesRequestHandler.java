@@ -36,13 +36,17 @@ import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
 import com.microsoft.java.debug.core.adapter.IDebugRequestHandler;
 import com.microsoft.java.debug.core.adapter.IEvaluationProvider;
 import com.microsoft.java.debug.core.adapter.IStackFrameManager;
+import com.microsoft.java.debug.core.adapter.VariablesCache;
+import com.microsoft.java.debug.core.adapter.variables.HeapObjects;
 import com.microsoft.java.debug.core.adapter.variables.IVariableFormatter;
+import com.microsoft.java.debug.core.adapter.variables.JavaCollectionFieldWalker;
 import com.microsoft.java.debug.core.adapter.variables.JavaLogicalStructure;
 import com.microsoft.java.debug.core.adapter.variables.JavaLogicalStructure.LogicalStructureExpression;
 import com.microsoft.java.debug.core.adapter.variables.JavaLogicalStructure.LogicalVariable;
 import com.microsoft.java.debug.core.adapter.variables.JavaLogicalStructureManager;
 import com.microsoft.java.debug.core.adapter.variables.StackFrameReference;
 import com.microsoft.java.debug.core.adapter.variables.StringReferenceProxy;
+import com.microsoft.java.debug.core.adapter.variables.StringReferenceUtils;
 import com.microsoft.java.debug.core.adapter.variables.Variable;
 import com.microsoft.java.debug.core.adapter.variables.VariableDetailUtils;
 import com.microsoft.java.debug.core.adapter.variables.VariableProxy;
@@ -118,6 +122,8 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
         }
 
         VariableProxy containerNode = (VariableProxy) container;
+        VariablesCache variablesCache = context.getVariablesCache();
+        long suspendEpoch = variablesCache.getSuspendEpoch(containerNode.getThreadId());
 
         if (supportsToStringView(context) && containerNode.isLazyVariable()) {
             Types.Variable typedVariable = this.resolveLazyVariable(context, containerNode, variableFormatter, options, evaluationEngine);
@@ -165,9 +171,12 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
                     ErrorCode.GET_VARIABLE_FAILURE,
                     e.getCause() != null ? e.getCause() : e);
             }
+        } else if (containerNode.getProxiedVariable() instanceof HeapObjects) {
+            childrenList = ((HeapObjects) containerNode.getProxiedVariable()).getVariables(varArgs.start, varArgs.count);
         } else {
             try {
                 ObjectReference containerObj = (ObjectReference) containerNode.getProxiedVariable();
+                boolean resolvedByFieldWalker = false;
                 if (supportsLogicStructureView(context) && evaluationEngine != null) {
                     JavaLogicalStructure logicalStructure = null;
                     try {
@@ -179,6 +188,27 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
                         containerEvaluateName = "((" + logicalStructure.getFullyQualifiedName() + ")" + containerEvaluateName + ")";
                         isUnboundedTypeContainer = false;
                     }
+                    if (logicalStructure != null && JavaCollectionFieldWalker.isSupported(containerObj)) {
+                        try {
+                            List<Value> elements = JavaCollectionFieldWalker.getElements(containerObj, varArgs.start, varArgs.count);
+                            if (elements != null) {
+                                if (containerEvaluateName != null) {
+                                    containerEvaluateName = containerEvaluateName + "." + JavaCollectionFieldWalker.getElementsEvaluateName(containerObj);
+                                }
+                                isUnboundedTypeContainer = true;
+                                int index = Math.max(varArgs.start, 0);
+                                for (Value element : elements) {
+                                    Variable variable = new Variable(String.valueOf(index++), element);
+                                    variable.setUnboundedType(true);
+                                    childrenList.add(variable);
+                                }
+                                resolvedByFieldWalker = true;
+                                logicalStructure = null;
+                            }
+                        } catch (Exception e) {
+                            logger.log(Level.WARNING, "Failed to read the logical structure from the fields, fall back to the method invocation.", e);
+                        }
+                    }
                     while (logicalStructure != null) {
                         LogicalStructureExpression valueExpression = logicalStructure.getValueExpression();
                         LogicalVariable[] logicalVariables = logicalStructure.getVariables();
@@ -211,11 +241,18 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
                     }
                 }
 
-                if (childrenList.isEmpty() && VariableUtils.hasChildren(containerObj, showStaticVariables)) {
-                    if (varArgs.count > 0) {
-                        childrenList = VariableUtils.listFieldVariables(containerObj, varArgs.start, varArgs.count);
-                    } else {
-                        childrenList = VariableUtils.listFieldVariables(containerObj, showStaticVariables, useAsyncJDWP(context));
+                if (childrenList.isEmpty() && !resolvedByFieldWalker) {
+                    List<Object> fieldsKey = Arrays.asList(varArgs.start, varArgs.count, showStaticVariables);
+                    List<Variable> cachedChildren = variablesCache.getChildren(containerNode.getThreadId(), suspendEpoch, containerObj, fieldsKey);
+                    if (cachedChildren != null) {
+                        childrenList = cachedChildren;
+                    } else if (VariableUtils.hasChildren(containerObj, showStaticVariables)) {
+                        if (varArgs.count > 0) {
+                            childrenList = VariableUtils.listFieldVariables(containerObj, varArgs.start, varArgs.count);
+                        } else {
+                            childrenList = VariableUtils.listFieldVariables(containerObj, showStaticVariables, useAsyncJDWP(context));
+                        }
+                        variablesCache.putChildren(containerNode.getThreadId(), suspendEpoch, containerObj, fieldsKey, childrenList);
                     }
                 }
             } catch (AbsentInformationException e) {
@@ -273,6 +310,8 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
             });
         }
 
+        List<DeferredVariable> deferredVariables = new ArrayList<>();
+        List<Value> deferredValues = new ArrayList<>();
         for (Variable javaVariable : childrenList) {
             Value value = javaVariable.value;
             String name = javaVariable.name;
@@ -327,7 +366,15 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
             boolean hasErrors = false;
             String valueString = null;
             try {
-                valueString = variableFormatter.valueToString(value, options);
+                if (value instanceof ObjectReference) {
+                    valueString = variablesCache.getFormattedValue(containerNode.getThreadId(), suspendEpoch, (ObjectReference) value, options);
+                }
+                if (valueString == null) {
+                    valueString = variableFormatter.valueToString(value, options);
+                    if (value instanceof ObjectReference) {
+                        variablesCache.putFormattedValue(containerNode.getThreadId(), suspendEpoch, (ObjectReference) value, options, valueString);
+                    }
+                }
             } catch (OutOfMemoryError e) {
                 hasErrors = true;
                 logger.log(Level.SEVERE, "Failed to convert the value of a large object to a string", e);
@@ -347,6 +394,7 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
             }
 
             String detailsValue = null;
+            boolean isDetailsDeferred = false;
             if (hasErrors) {
                 // If failed to resolve the variable value, skip the details info as well.
             } else if (sizeValue != null) {
@@ -355,35 +403,46 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
                 if (VariableDetailUtils.isLazyLoadingSupported(value) && varProxy != null) {
                     varProxy.setLazyVariable(true);
                 } else {
-                    try {
-                        detailsValue = VariableDetailUtils.formatDetailsValue(value, containerNode.getThread(), variableFormatter, options, evaluationEngine);
-                    } catch (OutOfMemoryError e) {
-                        logger.log(Level.SEVERE, "Failed to compute the toString() value of a large object", e);
-                        detailsValue = "<Unable to display the details of a large object>";
-                    } catch (Exception e) {
-                        logger.log(Level.SEVERE, "Failed to compute the toString() value", e);
-                        detailsValue = "<Failed to resolve the variable details due to \"" + e.getMessage() + "\">";
-                    }
+                    // Compute the details of all the variables together after the loop.
+                    isDetailsDeferred = true;
                 }
             }
 
-            int referenceId = 0;
-            if (varProxy != null) {
-                referenceId = context.getRecyclableIdPool().addObject(containerNode.getThreadId(), varProxy);
-            }
-
             String[] rawAttributes = extractAttributes(javaVariable);
 
-            Types.Variable typedVariables = new Types.Variable(name, valueString, typeString, referenceId, evaluateName);
+            Types.Variable typedVariables = new Types.Variable(name, valueString, typeString, 0, evaluateName);
             typedVariables.indexedVariables = Math.max(indexedVariables, 0);
-            if ((varProxy != null && varProxy.isLazyVariable()) || (rawAttributes.length > 0)) {
-                typedVariables.presentationHint = new VariablePresentationHint(varProxy != null && varProxy.isLazyVariable(), rawAttributes);
+            if (isDetailsDeferred) {
+                deferredVariables.add(new DeferredVariable(typedVariables, varProxy, rawAttributes));
+                deferredValues.add(value);
+            } else {
+                completeVariable(context, containerNode, typedVariables, varProxy, rawAttributes, detailsValue);
             }
+            list.add(typedVariables);
+        }
 
-            if (detailsValue != null) {
-                typedVariables.value = typedVariables.value + " " + detailsValue;
+        if (!deferredVariables.isEmpty()) {
+            VariableDetailUtils.BatchedDetails batchedDetails = null;
+            try {
+                batchedDetails = VariableDetailUtils.formatDetailsValues(deferredValues, containerNode.getThread(), variableFormatter, options,
+                        evaluationEngine, DebugSettings.getCurrent().toStringTimeBudget);
+            } catch (OutOfMemoryError e) {
+                logger.log(Level.SEVERE, "Failed to compute the toString() value of a large object", e);
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Failed to compute the toString() value", e);
+            }
+
+            for (int i = 0; i < deferredVariables.size(); i++) {
+                DeferredVariable deferred = deferredVariables.get(i);
+                String detailsValue = null;
+                if (batchedDetails != null && batchedDetails.isResolved(i)) {
+                    detailsValue = batchedDetails.getDetails(i);
+                } else if (deferred.varProxy != null) {
+                    // Out of the time budget, let the client resolve the details on demand.
+                    deferred.varProxy.setLazyVariable(true);
+                }
+                completeVariable(context, containerNode, deferred.variable, deferred.varProxy, deferred.rawAttributes, detailsValue);
             }
-            list.add(typedVariables);
         }
 
         if (list.isEmpty() && containerNode.getProxiedVariable() instanceof ObjectReference) {
@@ -395,6 +454,21 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
         return CompletableFuture.completedFuture(response);
     }
 
+    private void completeVariable(IDebugAdapterContext context, VariableProxy containerNode, Types.Variable typedVariable,
+            VariableProxy varProxy, String[] rawAttributes, String detailsValue) {
+        if (varProxy != null) {
+            typedVariable.variablesReference = context.getRecyclableIdPool().addObject(containerNode.getThreadId(), varProxy);
+        }
+
+        if ((varProxy != null && varProxy.isLazyVariable()) || (rawAttributes.length > 0)) {
+            typedVariable.presentationHint = new VariablePresentationHint(varProxy != null && varProxy.isLazyVariable(), rawAttributes);
+        }
+
+        if (detailsValue != null) {
+            typedVariable.value = typedVariable.value + " " + detailsValue;
+        }
+    }
+
     private String[] extractAttributes(Variable variable) {
         final List<String> attributes = new ArrayList<>();
         if (variable.field != null) {
@@ -524,10 +598,18 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
                 // JDWP Command: AR_LENGTH
                 futures.add(AsyncJdwpUtils.runAsync(() -> ((ArrayReference) value).length()));
             } else if (value instanceof StringReference) {
-                // JDWP Command: SR_VALUE
+                int maxLength = DebugSettings.getCurrent().maxStringLength;
                 futures.add(AsyncJdwpUtils.runAsync(() -> {
-                    String strValue = ((StringReference) value).value();
-                    javaVariable.value = new StringReferenceProxy((StringReference) value, strValue);
+                    if (maxLength <= 0) {
+                        // JDWP Command: SR_VALUE
+                        String strValue = ((StringReference) value).value();
+                        javaVariable.value = new StringReferenceProxy((StringReference) value, strValue);
+                    } else {
+                        // The abbreviated strings only prefetch their displayed prefix, plus one character to tell if it's abbreviated.
+                        // JDWP Command: OR_GET_VALUES, AR_LENGTH, SR_VALUE or AR_GET_VALUES
+                        javaVariable.value = StringReferenceUtils.prefetch((StringReference) value,
+                            maxLength == Integer.MAX_VALUE ? maxLength : maxLength + 1);
+                    }
                 }));
             }
 
@@ -541,4 +623,16 @@ public class VariablesRequestHandler implements IDebugRequestHandler {
 
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
     }
+
+    private static class DeferredVariable {
+        final Types.Variable variable;
+        final VariableProxy varProxy;
+        final String[] rawAttributes;
+
+        DeferredVariable(Types.Variable variable, VariableProxy varProxy, String[] rawAttributes) {
+            this.variable = variable;
+            this.varProxy = varProxy;
+            this.rawAttributes = rawAttributes;
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import com.microsoft.java.debug.core.adapter.IEvaluationProvider;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.Value;
+
+/**
+ * Coalesces the watch evaluations of the same stack frame. The client refreshes every watch expression with its own
+ * evaluate request after each step. The first request of a frame is evaluated at once, and the requests arriving while
+ * it's running are grouped and handed to the evaluation provider together when it completes, which resolves the frame a
+ * single time and evaluates the group in one suspended interval. A single watch is never delayed.
+ */
+class WatchEvaluationBatcher {
+    private final Map<FrameKey, Batch> latestBatches = new HashMap<>();
+
+    /**
+     * Evaluates the expression at once if no evaluation of the stack frame is running, otherwise queues it to the
+     * batch which starts when the running one completes.
+     *
+     * @param engine the evaluation provider
+     * @param expression the expression to be evaluated
+     * @param thread the suspended thread
+     * @param depth the stack frame depth in the suspended thread
+     * @return the evaluation result future
+     */
+    CompletableFuture<Value> evaluate(IEvaluationProvider engine, String expression, ThreadReference thread, int depth) {
+        CompletableFuture<Value> result = new CompletableFuture<>();
+        FrameKey key = new FrameKey(thread.uniqueID(), depth);
+        Batch previous;
+        Batch batch;
+        synchronized (latestBatches) {
+            previous = latestBatches.get(key);
+            if (previous != null && !previous.started && previous.engine == engine) {
+                previous.expressions.add(expression);
+                previous.results.add(result);
+                return result;
+            }
+
+            batch = new Batch(engine, thread, depth);
+            batch.expressions.add(expression);
+            batch.results.add(result);
+            latestBatches.put(key, batch);
+        }
+
+        if (previous == null) {
+            flush(key, batch);
+        } else {
+            previous.completed.whenComplete((value, error) -> flush(key, batch));
+        }
+        return result;
+    }
+
+    private void flush(FrameKey key, Batch batch) {
+        synchronized (latestBatches) {
+            batch.started = true;
+        }
+
+        List<CompletableFuture<Value>> values;
+        try {
+            values = batch.engine.evaluate(batch.expressions, batch.thread, batch.depth);
+        } catch (Exception e) {
+            batch.results.forEach(result -> result.completeExceptionally(e));
+            complete(key, batch);
+            return;
+        }
+
+        for (int i = 0; i < batch.results.size(); i++) {
+            CompletableFuture<Value> result = batch.results.get(i);
+            values.get(i).whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+        CompletableFuture.allOf(batch.results.toArray(new CompletableFuture<?>[0])).whenComplete((value, error) -> complete(key, batch));
+    }
+
+    private void complete(FrameKey key, Batch batch) {
+        synchronized (latestBatches) {
+            latestBatches.remove(key, batch);
+        }
+        batch.completed.complete(null);
+    }
+
+    private static final class Batch {
+        private final IEvaluationProvider engine;
+        private final ThreadReference thread;
+        private final int depth;
+        private final List<String> expressions = new ArrayList<>();
+        private final List<CompletableFuture<Value>> results = new ArrayList<>();
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+        // Guarded by the batches map, no expression is added once the batch is handed to the evaluation provider.
+        private boolean started = false;
+
+        private Batch(IEvaluationProvider engine, ThreadReference thread, int depth) {
+            this.engine = engine;
+            this.thread = thread;
+            this.depth = depth;
+        }
+    }
+
+    private static final class FrameKey {
+        private final long threadId;
+        private final int depth;
+
+        private FrameKey(long threadId, int depth) {
+            this.threadId = threadId;
+            this.depth = depth;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FrameKey)) {
+                return false;
+            }
+            FrameKey other = (FrameKey) obj;
+            return threadId == other.threadId && depth == other.depth;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(threadId, depth);
+        }
+    }
+}
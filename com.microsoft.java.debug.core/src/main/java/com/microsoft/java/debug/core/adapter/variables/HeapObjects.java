@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.variables;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.sun.jdi.ObjectReference;
+
+/**
+ * The objects found by a heap query, e.g. the instances of a class or the referrers of an object.
+ * It's proxied by a {@link VariableProxy}, so the objects are listed as indexed children and
+ * can be expanded like normal variables.
+ */
+public class HeapObjects {
+    private final String description;
+    private final List<ObjectReference> objects;
+
+    public HeapObjects(String description, List<ObjectReference> objects) {
+        this.description = description;
+        this.objects = Collections.unmodifiableList(new ArrayList<>(objects));
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * Lists the objects in the paging range as variables named by their index.
+     *
+     * @param start the index of the first object
+     * @param count the number of objects, 0 means all the remaining objects
+     * @return the variables
+     */
+    public List<Variable> getVariables(int start, int count) {
+        int from = Math.min(Math.max(start, 0), objects.size());
+        int to = count > 0 ? Math.min(from + count, objects.size()) : objects.size();
+        List<Variable> variables = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            // The heap objects are not reachable by an expression.
+            variables.add(new Variable(String.valueOf(i), objects.get(i), null));
+        }
+        return variables;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
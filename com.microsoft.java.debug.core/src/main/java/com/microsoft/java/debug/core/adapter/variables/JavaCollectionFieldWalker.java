@@ -0,0 +1,437 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.variables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.Field;
+import com.sun.jdi.IntegerValue;
+import com.sun.jdi.LongValue;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.Value;
+
+/**
+ * Resolves the logical structure of the well-known JDK collections by reading their internal fields
+ * instead of invoking methods such as <code>size()</code> or <code>toArray()</code> in the target VM.
+ *
+ * <p>A method invocation resumes the suspended thread and may run arbitrary code, while reading fields
+ * only costs plain JDWP round trips. If the internal layout of a collection doesn't match the expected
+ * fields (e.g. a different JDK implementation), the walker gives up and the caller is expected to fall
+ * back to the method invocation.</p>
+ */
+public final class JavaCollectionFieldWalker {
+    /**
+     * The linked structures need one JDWP request per node, so give up walking them when the
+     * requested range needs to visit more nodes than this, a single method invocation is cheaper then.
+     */
+    static final int MAX_NODES_TO_WALK = 1000;
+
+    private static final String LIST_ELEMENT_EVALUATE_NAME = "get(%s)";
+    private static final String COLLECTION_ELEMENT_EVALUATE_NAME = "toArray()";
+    private static final String MAP_ELEMENT_EVALUATE_NAME = "entrySet().toArray()";
+
+    private static final String CHM_TREE_BIN = "java.util.concurrent.ConcurrentHashMap$TreeBin";
+
+    private static final Map<String, CollectionKind> SUPPORTED_TYPES = new HashMap<>();
+    private static final Map<String, Map<String, String>> ENTRY_ACCESSORS = new HashMap<>();
+
+    static {
+        SUPPORTED_TYPES.put("java.util.ArrayList", CollectionKind.ARRAY_LIST);
+        SUPPORTED_TYPES.put("java.util.LinkedList", CollectionKind.LINKED_LIST);
+        SUPPORTED_TYPES.put("java.util.ArrayDeque", CollectionKind.ARRAY_DEQUE);
+        SUPPORTED_TYPES.put("java.util.HashMap", CollectionKind.HASH_MAP);
+        SUPPORTED_TYPES.put("java.util.LinkedHashMap", CollectionKind.LINKED_HASH_MAP);
+        SUPPORTED_TYPES.put("java.util.concurrent.ConcurrentHashMap", CollectionKind.CONCURRENT_HASH_MAP);
+
+        Map<String, String> hashMapNode = new HashMap<>();
+        hashMapNode.put("getKey", "key");
+        hashMapNode.put("getValue", "value");
+        ENTRY_ACCESSORS.put("java.util.HashMap$Node", hashMapNode);
+        ENTRY_ACCESSORS.put("java.util.HashMap$TreeNode", hashMapNode);
+        ENTRY_ACCESSORS.put("java.util.LinkedHashMap$Entry", hashMapNode);
+        ENTRY_ACCESSORS.put("java.util.TreeMap$Entry", hashMapNode);
+        Map<String, String> concurrentHashMapNode = new HashMap<>();
+        concurrentHashMapNode.put("getKey", "key");
+        concurrentHashMapNode.put("getValue", "val");
+        ENTRY_ACCESSORS.put("java.util.concurrent.ConcurrentHashMap$Node", concurrentHashMapNode);
+        ENTRY_ACCESSORS.put("java.util.concurrent.ConcurrentHashMap$TreeNode", concurrentHashMapNode);
+        ENTRY_ACCESSORS.put("java.util.concurrent.ConcurrentHashMap$MapEntry", concurrentHashMapNode);
+    }
+
+    /**
+     * Returns whether the logical structure of the given object can be resolved by reading its fields.
+     */
+    public static boolean isSupported(ObjectReference obj) {
+        return getKind(obj) != null;
+    }
+
+    /**
+     * Returns the expression suffix to evaluate the elements of the given collection, which is consistent
+     * with the evaluate name produced by the method based logical structure.
+     */
+    public static String getElementsEvaluateName(ObjectReference obj) {
+        CollectionKind kind = getKind(obj);
+        if (kind == null) {
+            return null;
+        }
+
+        switch (kind) {
+            case ARRAY_LIST:
+            case LINKED_LIST:
+                return LIST_ELEMENT_EVALUATE_NAME;
+            case ARRAY_DEQUE:
+                return COLLECTION_ELEMENT_EVALUATE_NAME;
+            default:
+                return MAP_ELEMENT_EVALUATE_NAME;
+        }
+    }
+
+    /**
+     * Returns the logical size of the given collection, or -1 if it cannot be resolved by the fields.
+     */
+    public static int getSize(ObjectReference obj) {
+        CollectionKind kind = getKind(obj);
+        if (kind == null) {
+            return -1;
+        }
+
+        ReferenceType type = obj.referenceType();
+        switch (kind) {
+            case ARRAY_DEQUE: {
+                Field elementsField = type.fieldByName("elements");
+                Field headField = type.fieldByName("head");
+                Field tailField = type.fieldByName("tail");
+                if (elementsField == null || headField == null || tailField == null) {
+                    return -1;
+                }
+
+                Map<Field, Value> values = obj.getValues(Arrays.asList(elementsField, headField, tailField));
+                ArrayReference elements = (ArrayReference) values.get(elementsField);
+                if (elements == null) {
+                    return -1;
+                }
+
+                return dequeSize(elements.length(), intValue(values.get(headField)), intValue(values.get(tailField)));
+            }
+            case CONCURRENT_HASH_MAP:
+                return concurrentHashMapSize(obj);
+            default: {
+                Field sizeField = type.fieldByName("size");
+                if (sizeField == null) {
+                    return -1;
+                }
+
+                Value size = obj.getValue(sizeField);
+                return size instanceof IntegerValue ? ((IntegerValue) size).value() : -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the logical elements of the given collection in its iteration order. For a Map, the elements are
+     * the internal entry nodes, which implement <code>java.util.Map$Entry</code>.
+     *
+     * @param obj
+     *              the collection object
+     * @param start
+     *              the index of the first element to return
+     * @param count
+     *              the number of elements to return, or a non-positive number for all the remaining elements
+     * @return the elements, or null if the elements cannot be resolved by the fields
+     */
+    public static List<Value> getElements(ObjectReference obj, int start, int count) {
+        CollectionKind kind = getKind(obj);
+        if (kind == null) {
+            return null;
+        }
+
+        start = Math.max(start, 0);
+        int end = count > 0 ? start + count : Integer.MAX_VALUE;
+        switch (kind) {
+            case ARRAY_LIST:
+                return getArrayListElements(obj, start, end);
+            case ARRAY_DEQUE:
+                return getArrayDequeElements(obj, start, end);
+            case LINKED_LIST:
+                return walkLinkedNodes(obj, "first", "next", "item", start, end);
+            case LINKED_HASH_MAP:
+                return walkLinkedNodes(obj, "head", "after", null, start, end);
+            case HASH_MAP:
+            case CONCURRENT_HASH_MAP:
+                return walkHashTable(obj, start, end);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the field backing the trivial accessor method (e.g. <code>getKey()</code>) of the well-known
+     * Map entry implementations, or null if the accessor cannot be replaced by a field read.
+     */
+    public static Field getAccessorField(ObjectReference obj, String methodName) {
+        if (obj == null) {
+            return null;
+        }
+
+        ReferenceType type = obj.referenceType();
+        Map<String, String> accessors = ENTRY_ACCESSORS.get(type.name());
+        if (accessors == null || !accessors.containsKey(methodName)) {
+            return null;
+        }
+
+        return type.fieldByName(accessors.get(methodName));
+    }
+
+    private static CollectionKind getKind(ObjectReference obj) {
+        if (obj == null) {
+            return null;
+        }
+
+        return SUPPORTED_TYPES.get(obj.referenceType().name());
+    }
+
+    private static List<Value> getArrayListElements(ObjectReference obj, int start, int end) {
+        ReferenceType type = obj.referenceType();
+        Field elementDataField = type.fieldByName("elementData");
+        Field sizeField = type.fieldByName("size");
+        if (elementDataField == null || sizeField == null) {
+            return null;
+        }
+
+        Map<Field, Value> values = obj.getValues(Arrays.asList(elementDataField, sizeField));
+        ArrayReference elementData = (ArrayReference) values.get(elementDataField);
+        int size = intValue(values.get(sizeField));
+        if (elementData == null || size < 0 || size > elementData.length()) {
+            return null;
+        }
+
+        end = Math.min(end, size);
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+
+        return new ArrayList<>(elementData.getValues(start, end - start));
+    }
+
+    private static List<Value> getArrayDequeElements(ObjectReference obj, int start, int end) {
+        ReferenceType type = obj.referenceType();
+        Field elementsField = type.fieldByName("elements");
+        Field headField = type.fieldByName("head");
+        Field tailField = type.fieldByName("tail");
+        if (elementsField == null || headField == null || tailField == null) {
+            return null;
+        }
+
+        Map<Field, Value> values = obj.getValues(Arrays.asList(elementsField, headField, tailField));
+        ArrayReference elements = (ArrayReference) values.get(elementsField);
+        if (elements == null) {
+            return null;
+        }
+
+        int length = elements.length();
+        int head = intValue(values.get(headField));
+        int size = dequeSize(length, head, intValue(values.get(tailField)));
+        end = Math.min(end, size);
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+
+        // The deque is a circular array, the requested range may wrap around the end of the array.
+        int first = (head + start) % length;
+        int total = end - start;
+        int firstChunk = Math.min(total, length - first);
+        List<Value> result = new ArrayList<>(elements.getValues(first, firstChunk));
+        if (firstChunk < total) {
+            result.addAll(elements.getValues(0, total - firstChunk));
+        }
+
+        return result;
+    }
+
+    private static List<Value> walkLinkedNodes(ObjectReference obj, String headFieldName, String nextFieldName, String itemFieldName,
+            int start, int end) {
+        Field headField = obj.referenceType().fieldByName(headFieldName);
+        if (headField == null) {
+            return null;
+        }
+
+        int size = getSize(obj);
+        if (size < 0 || Math.min(end, size) > MAX_NODES_TO_WALK) {
+            return null;
+        }
+
+        List<Value> result = new ArrayList<>();
+        ObjectReference node = (ObjectReference) obj.getValue(headField);
+        Field nextField = null;
+        Field itemField = null;
+        int index = 0;
+        while (node != null && index < end) {
+            if (nextField == null) {
+                ReferenceType nodeType = node.referenceType();
+                nextField = nodeType.fieldByName(nextFieldName);
+                itemField = itemFieldName == null ? null : nodeType.fieldByName(itemFieldName);
+                if (nextField == null || (itemFieldName != null && itemField == null)) {
+                    return null;
+                }
+            }
+
+            if (itemField == null) {
+                if (index >= start) {
+                    result.add(node);
+                }
+                node = (ObjectReference) node.getValue(nextField);
+            } else {
+                // Batch the item and the next pointer in one JDWP request.
+                Map<Field, Value> values = node.getValues(Arrays.asList(itemField, nextField));
+                if (index >= start) {
+                    result.add(values.get(itemField));
+                }
+                node = (ObjectReference) values.get(nextField);
+            }
+
+            index++;
+        }
+
+        return result;
+    }
+
+    private static List<Value> walkHashTable(ObjectReference obj, int start, int end) {
+        Field tableField = obj.referenceType().fieldByName("table");
+        if (tableField == null) {
+            return null;
+        }
+
+        ArrayReference table = (ArrayReference) obj.getValue(tableField);
+        if (table == null) {
+            return Collections.emptyList();
+        }
+
+        List<Value> result = new ArrayList<>();
+        int index = 0;
+        int visited = 0;
+        Field nextField = null;
+        for (Value bin : table.getValues()) {
+            ObjectReference node = (ObjectReference) bin;
+            if (node == null) {
+                continue;
+            }
+
+            ReferenceType nodeType = node.referenceType();
+            if (nodeType.name().startsWith("java.util.concurrent.ConcurrentHashMap$")) {
+                if (CHM_TREE_BIN.equals(nodeType.name())) {
+                    Field firstField = nodeType.fieldByName("first");
+                    if (firstField == null) {
+                        return null;
+                    }
+                    node = (ObjectReference) node.getValue(firstField);
+                } else if (!ENTRY_ACCESSORS.containsKey(nodeType.name())) {
+                    // The map is being resized (ForwardingNode) or computed (ReservationNode).
+                    return null;
+                }
+            }
+
+            while (node != null) {
+                if (index >= end) {
+                    return result;
+                }
+
+                if (++visited > MAX_NODES_TO_WALK) {
+                    return null;
+                }
+
+                if (index >= start) {
+                    result.add(node);
+                }
+
+                if (nextField == null) {
+                    nextField = node.referenceType().fieldByName("next");
+                    if (nextField == null) {
+                        return null;
+                    }
+                }
+
+                node = (ObjectReference) node.getValue(nextField);
+                index++;
+            }
+        }
+
+        return result;
+    }
+
+    private static int concurrentHashMapSize(ObjectReference obj) {
+        ReferenceType type = obj.referenceType();
+        Field baseCountField = type.fieldByName("baseCount");
+        Field counterCellsField = type.fieldByName("counterCells");
+        if (baseCountField == null || counterCellsField == null) {
+            return -1;
+        }
+
+        Map<Field, Value> values = obj.getValues(Arrays.asList(baseCountField, counterCellsField));
+        Value baseCount = values.get(baseCountField);
+        if (!(baseCount instanceof LongValue)) {
+            return -1;
+        }
+
+        long sum = ((LongValue) baseCount).value();
+        ArrayReference counterCells = (ArrayReference) values.get(counterCellsField);
+        if (counterCells != null) {
+            Field cellValueField = null;
+            for (Value cell : counterCells.getValues()) {
+                if (cell == null) {
+                    continue;
+                }
+
+                if (cellValueField == null) {
+                    cellValueField = ((ObjectReference) cell).referenceType().fieldByName("value");
+                    if (cellValueField == null) {
+                        return -1;
+                    }
+                }
+
+                Value cellValue = ((ObjectReference) cell).getValue(cellValueField);
+                if (cellValue instanceof LongValue) {
+                    sum += ((LongValue) cellValue).value();
+                }
+            }
+        }
+
+        return sum < 0L ? 0 : (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    private static int dequeSize(int length, int head, int tail) {
+        if (length == 0) {
+            return 0;
+        }
+
+        int size = tail - head;
+        return size < 0 ? size + length : size;
+    }
+
+    private static int intValue(Value value) {
+        return value instanceof IntegerValue ? ((IntegerValue) value).value() : -1;
+    }
+
+    private enum CollectionKind {
+        ARRAY_LIST, LINKED_LIST, ARRAY_DEQUE, HASH_MAP, LINKED_HASH_MAP, CONCURRENT_HASH_MAP
+    }
+
+    private JavaCollectionFieldWalker() {
+
+    }
+}
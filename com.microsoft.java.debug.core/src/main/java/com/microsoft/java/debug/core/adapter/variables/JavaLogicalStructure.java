@@ -125,6 +125,12 @@ public class JavaLogicalStructure {
             throw new UnsupportedOperationException("The object hasn't defined the logical size operation.");
         }
 
+        // Read the size from the internal fields of the well-known collections to avoid a method invocation.
+        int size = JavaCollectionFieldWalker.getSize(thisObject);
+        if (size >= 0) {
+            return thisObject.virtualMachine().mirrorOf(size);
+        }
+
         return getValue(thisObject, sizeExpression, thread, evaluationEngine);
     }
 
@@ -142,6 +148,10 @@ public class JavaLogicalStructure {
             if (expression.value == null || expression.value.length < 2) {
                 throw new IllegalArgumentException("The method expression should contain at least methodName and methodSignature!");
             }
+            Field accessorField = JavaCollectionFieldWalker.getAccessorField(thisObject, expression.value[0]);
+            if (accessorField != null) {
+                return thisObject.getValue(accessorField);
+            }
             return evaluationEngine.invokeMethod(thisObject, expression.value[0], expression.value[1], null, thread, false).get();
         } else if (expression.type == LogicalStructureExpressionType.FIELD) {
             if (expression.value == null || expression.value.length < 1) {
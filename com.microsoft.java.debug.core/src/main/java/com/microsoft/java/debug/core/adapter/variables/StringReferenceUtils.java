@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.variables;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.ByteValue;
+import com.sun.jdi.CharValue;
+import com.sun.jdi.ClassType;
+import com.sun.jdi.Field;
+import com.sun.jdi.IntegerValue;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.StringReference;
+import com.sun.jdi.Value;
+import com.sun.jdi.VirtualMachine;
+
+/**
+ * Reads the content of a string in the target VM by ranges of its backing array, so that displaying a huge string
+ * only transfers the displayed prefix. Reading the ranges costs more round trips than reading the whole string for
+ * the short strings, so it's only used when the prefix is prefetched, e.g. by the parallel warm-up in async mode.
+ */
+public final class StringReferenceUtils {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final String VALUE_FIELD = "value";
+    private static final String CODER_FIELD = "coder";
+    private static final String STRING_UTF16_CLASS = "java.lang.StringUTF16";
+    private static final String HI_BYTE_SHIFT_FIELD = "HI_BYTE_SHIFT";
+    private static final byte LATIN1 = 0;
+    private static final Map<VirtualMachine, Integer> hiByteShifts = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private StringReferenceUtils() {
+    }
+
+    /**
+     * Returns the complete content of the string.
+     *
+     * @param str the string reference
+     * @return the string value
+     */
+    public static String getValue(StringReference str) {
+        return getValue(str, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns at most the first <code>maxLength</code> characters of the string. If a prefix of the string is
+     * prefetched, only the characters beyond it are transferred from the target VM.
+     *
+     * @param str the string reference
+     * @param maxLength the maximum count of characters to read
+     * @return the string value, or its prefix if the string is longer
+     */
+    public static String getValue(StringReference str, int maxLength) {
+        if (!(str instanceof StringPrefixProxy)) {
+            // JDWP Command: SR_VALUE, a single round trip.
+            return prefix(str.value(), maxLength);
+        } else if (((StringPrefixProxy) str).prefix.length() >= maxLength) {
+            return prefix(((StringPrefixProxy) str).prefix, maxLength);
+        }
+        return readPrefix(str, maxLength);
+    }
+
+    /**
+     * Reads at most the first <code>maxLength</code> characters of the string by ranges of its backing array.
+     */
+    static String readPrefix(StringReference str, int maxLength) {
+        StringContent content = StringContent.of(str);
+        if (content == null) {
+            return prefix(str.value(), maxLength);
+        }
+
+        int length = content.length();
+        if (length <= maxLength) {
+            // JDWP Command: SR_VALUE, the whole string is needed, read it in one reply unless it's huge.
+            return length <= CHUNK_SIZE ? str.value() : read(content, length);
+        }
+        return read(content, maxLength);
+    }
+
+    /**
+     * Reads the first <code>maxLength</code> characters of the string ahead of formatting it, e.g. in parallel with
+     * the other variables. The returned proxy answers {@link #getValue(StringReference, int)} within the limit
+     * without accessing the target VM again.
+     *
+     * @param str the string reference
+     * @param maxLength the maximum count of characters to read
+     * @return the proxy holding the string value, or its prefix if the string is longer
+     */
+    public static StringReference prefetch(StringReference str, int maxLength) {
+        // JDWP Command: OR_GET_VALUES, AR_LENGTH, SR_VALUE or AR_GET_VALUES
+        String value = readPrefix(str, maxLength);
+        return value.length() < maxLength ? new StringReferenceProxy(str, value) : new StringPrefixProxy(str, value);
+    }
+
+    private static String read(StringContent content, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int offset = 0; offset < count; offset += CHUNK_SIZE) {
+            content.append(builder, offset, Math.min(CHUNK_SIZE, count - offset));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A string whose prefix is read in advance, the other characters are still read from the target VM.
+     */
+    private static final class StringPrefixProxy extends StringReferenceProxy {
+        private final String prefix;
+
+        private StringPrefixProxy(StringReference str, String prefix) {
+            super(str, null);
+            this.prefix = prefix;
+        }
+    }
+
+    private static String prefix(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /**
+     * The backing array of a string, either a char array (JDK 8) or a byte array with a coder (JDK 9+).
+     */
+    private static final class StringContent {
+        private final ArrayReference array;
+        private final boolean latin1;
+        private final int hiByteShift;
+        private final boolean chars;
+
+        private StringContent(ArrayReference array, boolean chars, boolean latin1, int hiByteShift) {
+            this.array = array;
+            this.chars = chars;
+            this.latin1 = latin1;
+            this.hiByteShift = hiByteShift;
+        }
+
+        /**
+         * Returns the backing array of the string, or <code>null</code> if the string layout is not recognized.
+         */
+        static StringContent of(StringReference str) {
+            ReferenceType type = str.referenceType();
+            Field valueField = type.fieldByName(VALUE_FIELD);
+            if (valueField == null) {
+                return null;
+            }
+
+            Field coderField = type.fieldByName(CODER_FIELD);
+            List<Field> fields = coderField == null ? Collections.singletonList(valueField) : Arrays.asList(valueField, coderField);
+            // JDWP Command: OR_GET_VALUES
+            Map<Field, Value> values = str.getValues(fields);
+            Value value = values.get(valueField);
+            if (!(value instanceof ArrayReference)) {
+                return null;
+            }
+
+            ArrayReference array = (ArrayReference) value;
+            String arrayType = valueField.typeName();
+            if ("char[]".equals(arrayType)) {
+                return new StringContent(array, true, false, 0);
+            } else if (!"byte[]".equals(arrayType) || coderField == null) {
+                return null;
+            }
+
+            Value coder = values.get(coderField);
+            if (coder instanceof ByteValue && ((ByteValue) coder).value() == LATIN1) {
+                return new StringContent(array, false, true, 0);
+            }
+
+            Integer hiByteShift = getHiByteShift(str.virtualMachine());
+            return hiByteShift == null ? null : new StringContent(array, false, false, hiByteShift);
+        }
+
+        int length() {
+            // JDWP Command: AR_LENGTH
+            return (chars || latin1) ? array.length() : array.length() >> 1;
+        }
+
+        void append(StringBuilder builder, int offset, int count) {
+            if (chars) {
+                // JDWP Command: AR_GET_VALUES
+                for (Value value : array.getValues(offset, count)) {
+                    builder.append(((CharValue) value).value());
+                }
+            } else if (latin1) {
+                for (Value value : array.getValues(offset, count)) {
+                    builder.append((char) (((ByteValue) value).value() & 0xff));
+                }
+            } else {
+                int loByteShift = hiByteShift == 0 ? 8 : 0;
+                List<Value> bytes = array.getValues(offset << 1, count << 1);
+                for (int i = 0; i < bytes.size(); i += 2) {
+                    int hi = ((ByteValue) bytes.get(i)).value() & 0xff;
+                    int lo = ((ByteValue) bytes.get(i + 1)).value() & 0xff;
+                    builder.append((char) ((hi << hiByteShift) | (lo << loByteShift)));
+                }
+            }
+        }
+
+        /**
+         * The UTF16 strings are stored in the native byte order of the target VM.
+         */
+        private static Integer getHiByteShift(VirtualMachine vm) {
+            Integer hiByteShift = hiByteShifts.get(vm);
+            if (hiByteShift != null) {
+                return hiByteShift;
+            }
+
+            List<ReferenceType> types = vm.classesByName(STRING_UTF16_CLASS);
+            if (types.isEmpty() || !(types.get(0) instanceof ClassType)) {
+                return null;
+            }
+
+            ClassType utf16Type = (ClassType) types.get(0);
+            Field field = utf16Type.fieldByName(HI_BYTE_SHIFT_FIELD);
+            Value value = field == null ? null : utf16Type.getValue(field);
+            if (!(value instanceof IntegerValue)) {
+                return null;
+            }
+
+            hiByteShift = ((IntegerValue) value).value();
+            hiByteShifts.put(vm, hiByteShift);
+            return hiByteShift;
+        }
+    }
+}
@@ -11,25 +11,43 @@
 
 package com.microsoft.java.debug.core.adapter.variables;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import com.microsoft.java.debug.core.Configuration;
 import com.microsoft.java.debug.core.adapter.IEvaluationProvider;
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.ArrayType;
 import com.sun.jdi.ClassType;
+import com.sun.jdi.Field;
 import com.sun.jdi.InterfaceType;
 import com.sun.jdi.Method;
 import com.sun.jdi.ObjectReference;
 import com.sun.jdi.ReferenceType;
+import com.sun.jdi.StringReference;
 import com.sun.jdi.ThreadReference;
 import com.sun.jdi.Type;
 import com.sun.jdi.Value;
+import com.sun.jdi.VirtualMachine;
 
 public class VariableDetailUtils {
+    private static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
     private static final String STRING_TYPE = "java.lang.String";
     private static final String TO_STRING_METHOD = "toString";
     private static final String TO_STRING_METHOD_SIGNATURE = "()Ljava/lang/String;";
@@ -38,8 +56,19 @@ public class VariableDetailUtils {
     private static final String GET_KEY_METHOD_SIGNATURE = "()Ljava/lang/Object;";
     private static final String GET_VALUE_METHOD = "getValue";
     private static final String GET_VALUE_METHOD_SIGNATURE = "()Ljava/lang/Object;";
+    private static final String FORMATTED_METHOD = "formatted";
+    private static final String FORMATTED_METHOD_SIGNATURE = "([Ljava/lang/Object;)Ljava/lang/String;";
+    private static final String OBJECT_ARRAY_TYPE = "java.lang.Object[]";
+    private static final Set<String> FORMATTABLE_TYPES = Collections.singleton("java.util.Formattable");
     private static final Set<String> COLLECTION_TYPES = new HashSet(
             Arrays.asList("java.util.Map", "java.util.Collection", "java.util.Map$Entry"));
+    /**
+     * Caches the per-type answers which need to walk the type hierarchy, scoped by the debuggee VM of each session.
+     * Both the VMs and the types are weakly referenced, since the type mirrors refer to their VM,
+     * so the cache goes away together with the session.
+     */
+    private static final Map<VirtualMachine, Map<ReferenceType, TypeCapabilities>> typeCapabilities =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
      * Returns the details information for the specified variable.
@@ -49,28 +78,253 @@ public class VariableDetailUtils {
         if (isClassType(value, STRING_TYPE)) {
             // No need to show additional details information.
             return null;
-        } else {
-            return computeToStringValue(value, thread, variableFormatter, options, evaluationEngine, true);
         }
+
+        try {
+            return computeToStringValue(value, thread, variableFormatter, options, evaluationEngine, true, Long.MAX_VALUE);
+        } catch (TimeoutException e) {
+            // Never happens without a deadline.
+            return null;
+        }
+    }
+
+    /**
+     * Returns the details information for the specified variables. The toString() invocations required by them are
+     * batched into a single invocation in the target VM, and no new invocation is started once the time budget is
+     * used up. The details which cannot be computed within the budget are reported as unresolved.
+     */
+    public static BatchedDetails formatDetailsValues(List<Value> values, ThreadReference thread, IVariableFormatter variableFormatter,
+            Map<String, Object> options, IEvaluationProvider evaluationEngine, long timeBudget) {
+        long deadline = System.currentTimeMillis() + timeBudget;
+        BatchedDetails result = new BatchedDetails(values.size());
+        Object[][] templates = new Object[values.size()][];
+        Set<ObjectReference> pendingObjects = new LinkedHashSet<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (evaluationEngine == null) {
+                result.resolve(i, null);
+                continue;
+            } else if (System.currentTimeMillis() >= deadline) {
+                break;
+            }
+
+            try {
+                templates[i] = planDetailsValue(values.get(i), thread, variableFormatter, options, evaluationEngine, deadline);
+                if (templates[i] == null) {
+                    result.resolve(i, null);
+                }
+            } catch (TimeoutException e) {
+                break;
+            } catch (InterruptedException | ExecutionException e) {
+                result.resolve(i, null);
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Failed to compute the toString() value", e);
+                result.resolve(i, "<Failed to resolve the variable details due to \"" + e.getMessage() + "\">");
+            }
+
+            if (templates[i] != null) {
+                for (Object part : templates[i]) {
+                    if (part instanceof ObjectReference) {
+                        pendingObjects.add((ObjectReference) part);
+                    }
+                }
+            }
+        }
+
+        Map<ObjectReference, String> toStringValues = invokeToString(new ArrayList<>(pendingObjects), thread, variableFormatter, options,
+                evaluationEngine, deadline);
+        for (int i = 0; i < templates.length; i++) {
+            if (templates[i] != null) {
+                renderDetailsValue(i, templates[i], toStringValues, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the parts of the details information, where an {@link ObjectReference} part stands for the
+     * toString() value of that object and any other part is used as it is. <code>null</code> means no details.
+     */
+    private static Object[] planDetailsValue(Value value, ThreadReference thread, IVariableFormatter variableFormatter,
+            Map<String, Object> options, IEvaluationProvider evaluationEngine, long deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!(value instanceof ObjectReference) || isClassType(value, STRING_TYPE)) {
+            return null;
+        }
+
+        ObjectReference obj = (ObjectReference) value;
+        String inheritedType = getInheritedCollectionType(obj);
+        if (Objects.equals(inheritedType, ENTRY_TYPE)) {
+            Value keyObject = getEntryValue(obj, GET_KEY_METHOD, GET_KEY_METHOD_SIGNATURE, thread, evaluationEngine, deadline);
+            Value valueObject = getEntryValue(obj, GET_VALUE_METHOD, GET_VALUE_METHOD_SIGNATURE, thread, evaluationEngine, deadline);
+            return new Object[] {
+                planEntryPart(keyObject, thread, variableFormatter, options, evaluationEngine, deadline),
+                ":",
+                planEntryPart(valueObject, thread, variableFormatter, options, evaluationEngine, deadline)
+            };
+        } else if (inheritedType == null && overridesToString(obj)) {
+            return new Object[] { obj };
+        }
+
+        return null;
+    }
+
+    private static Object planEntryPart(Value value, ThreadReference thread, IVariableFormatter variableFormatter,
+            Map<String, Object> options, IEvaluationProvider evaluationEngine, long deadline) throws TimeoutException {
+        if (!(value instanceof ObjectReference)) {
+            return null;
+        } else if (isClassType(value, STRING_TYPE)) {
+            // String.toString() returns the string itself, no need to invoke it.
+            return variableFormatter.valueToString(value, options);
+        } else if (getInheritedCollectionType((ObjectReference) value) == null) {
+            return overridesToString((ObjectReference) value) ? value : null;
+        }
+
+        return computeToStringValue(value, thread, variableFormatter, options, evaluationEngine, false, deadline);
+    }
+
+    private static void renderDetailsValue(int index, Object[] template, Map<ObjectReference, String> toStringValues, BatchedDetails result) {
+        if (template.length == 1) {
+            if (toStringValues.containsKey(template[0])) {
+                result.resolve(index, toStringValues.get(template[0]));
+            }
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (Object part : template) {
+            if (part instanceof ObjectReference) {
+                if (!toStringValues.containsKey(part)) {
+                    return;
+                }
+                builder.append(toStringValues.get(part));
+            } else {
+                builder.append(part);
+            }
+        }
+
+        result.resolve(index, builder.toString());
+    }
+
+    /**
+     * Invokes toString() on the specified objects until the deadline, the objects which are not handled in time
+     * are absent from the returned map.
+     */
+    private static Map<ObjectReference, String> invokeToString(List<ObjectReference> objects, ThreadReference thread,
+            IVariableFormatter variableFormatter, Map<String, Object> options, IEvaluationProvider evaluationEngine, long deadline) {
+        Map<ObjectReference, String> toStringValues = new HashMap<>();
+        // The %s conversion formats a Formattable with formatTo() rather than toString(), invoke them one by one.
+        List<ObjectReference> batchedObjects = objects.stream().filter(obj -> !isFormattable(obj)).collect(Collectors.toList());
+        if (batchedObjects.size() > 1) {
+            try {
+                List<String> batchedValues = invokeToStringInBatch(batchedObjects, thread, variableFormatter, options, evaluationEngine, deadline);
+                if (batchedValues != null) {
+                    for (int i = 0; i < batchedObjects.size(); i++) {
+                        toStringValues.put(batchedObjects.get(i), batchedValues.get(i));
+                    }
+                }
+            } catch (TimeoutException e) {
+                return toStringValues;
+            } catch (Exception e) {
+                // Fall back to invoke them one by one, e.g. one of the toString() methods throws an exception.
+                logger.log(Level.FINE, "Failed to compute the toString() values in batch", e);
+            }
+        }
+
+        for (ObjectReference obj : objects) {
+            if (toStringValues.containsKey(obj)) {
+                continue;
+            }
+
+            try {
+                Value toStringValue = invokeMethod(obj, TO_STRING_METHOD, TO_STRING_METHOD_SIGNATURE, null, thread, evaluationEngine, deadline);
+                toStringValues.put(obj, variableFormatter.valueToString(toStringValue, options));
+            } catch (TimeoutException e) {
+                break;
+            } catch (InterruptedException | ExecutionException e) {
+                toStringValues.put(obj, null);
+            }
+        }
+
+        return toStringValues;
+    }
+
+    /**
+     * Computes the toString() values of all the objects with one String.formatted(Object...) invocation in the target VM,
+     * the objects must not implement java.util.Formattable.
+     * Returns <code>null</code> if the target VM doesn't support it.
+     */
+    private static List<String> invokeToStringInBatch(List<ObjectReference> objects, ThreadReference thread, IVariableFormatter variableFormatter,
+            Map<String, Object> options, IEvaluationProvider evaluationEngine, long deadline) throws Exception {
+        VirtualMachine vm = thread.virtualMachine();
+        List<ReferenceType> arrayTypes = vm.classesByName(OBJECT_ARRAY_TYPE);
+        List<ReferenceType> stringTypes = vm.classesByName(STRING_TYPE);
+        // String.formatted(Object...) is available since Java 15.
+        if (arrayTypes.isEmpty() || stringTypes.isEmpty() || !(stringTypes.get(0) instanceof ClassType)
+                || ((ClassType) stringTypes.get(0)).concreteMethodByName(FORMATTED_METHOD, FORMATTED_METHOD_SIGNATURE) == null) {
+            return null;
+        }
+
+        String separator = "\u0000" + UUID.randomUUID() + "\u0000";
+        ArrayReference arguments = ((ArrayType) arrayTypes.get(0)).newInstance(objects.size());
+        arguments.disableCollection();
+        StringReference pattern = vm.mirrorOf(String.join(separator, Collections.nCopies(objects.size(), "%s")));
+        pattern.disableCollection();
+        try {
+            arguments.setValues(objects);
+            Value result = invokeMethod(pattern, FORMATTED_METHOD, FORMATTED_METHOD_SIGNATURE, new Value[] { arguments }, thread,
+                    evaluationEngine, deadline);
+            if (!(result instanceof StringReference)) {
+                return null;
+            }
+
+            String[] pieces = ((StringReference) result).value().split(Pattern.quote(separator), -1);
+            if (pieces.length != objects.size()) {
+                return null;
+            }
+
+            List<String> toStringValues = new ArrayList<>(pieces.length);
+            for (String piece : pieces) {
+                toStringValues.add(variableFormatter.valueToString(new StringReferenceProxy((StringReference) result, piece), options));
+            }
+            return toStringValues;
+        } finally {
+            arguments.enableCollection();
+            pattern.enableCollection();
+        }
+    }
+
+    /**
+     * Invokes the method if the deadline is not reached yet. The deadline only stops the new invocations, an invocation
+     * already started is waited for since the thread can't serve any other request before it returns. A hung invocation
+     * is bounded by the timeout of the evaluation provider instead.
+     */
+    private static Value invokeMethod(ObjectReference obj, String methodName, String methodSignature, Value[] args, ThreadReference thread,
+            IEvaluationProvider evaluationEngine, long deadline) throws InterruptedException, ExecutionException, TimeoutException {
+        if (System.currentTimeMillis() >= deadline) {
+            throw new TimeoutException();
+        }
+
+        return evaluationEngine.invokeMethod(obj, methodName, methodSignature, args, thread, false).get();
     }
 
     private static String computeToStringValue(Value value, ThreadReference thread, IVariableFormatter variableFormatter,
-            Map<String, Object> options, IEvaluationProvider evaluationEngine, boolean isFirstLevel) {
+            Map<String, Object> options, IEvaluationProvider evaluationEngine, boolean isFirstLevel, long deadline) throws TimeoutException {
         if (!(value instanceof ObjectReference) || evaluationEngine == null) {
             return null;
         }
 
-        String inheritedType = findInheritedType(value, COLLECTION_TYPES);
+        String inheritedType = getInheritedCollectionType((ObjectReference) value);
         if (inheritedType != null) {
             if (Objects.equals(inheritedType, ENTRY_TYPE)) {
                 try {
-                    Value keyObject = evaluationEngine.invokeMethod((ObjectReference) value, GET_KEY_METHOD, GET_KEY_METHOD_SIGNATURE,
-                            null, thread, false).get();
-                    Value valueObject = evaluationEngine.invokeMethod((ObjectReference) value, GET_VALUE_METHOD, GET_VALUE_METHOD_SIGNATURE,
-                            null, thread, false).get();
-                    String toStringValue = computeToStringValue(keyObject, thread, variableFormatter, options, evaluationEngine, false)
+                    Value keyObject = getEntryValue((ObjectReference) value, GET_KEY_METHOD, GET_KEY_METHOD_SIGNATURE, thread,
+                            evaluationEngine, deadline);
+                    Value valueObject = getEntryValue((ObjectReference) value, GET_VALUE_METHOD, GET_VALUE_METHOD_SIGNATURE, thread,
+                            evaluationEngine, deadline);
+                    String toStringValue = computeToStringValue(keyObject, thread, variableFormatter, options, evaluationEngine, false, deadline)
                             + ":"
-                            + computeToStringValue(valueObject, thread, variableFormatter, options, evaluationEngine, false);
+                            + computeToStringValue(valueObject, thread, variableFormatter, options, evaluationEngine, false, deadline);
                     if (!isFirstLevel) {
                         toStringValue = "\"" + toStringValue + "\"";
                     }
@@ -82,10 +336,10 @@ public class VariableDetailUtils {
             } else if (!isFirstLevel) {
                 return variableFormatter.valueToString(value, options);
             }
-        } else if (containsToStringMethod((ObjectReference) value)) {
+        } else if (overridesToString((ObjectReference) value)) {
             try {
-                Value toStringValue = evaluationEngine.invokeMethod((ObjectReference) value, TO_STRING_METHOD, TO_STRING_METHOD_SIGNATURE,
-                        null, thread, false).get();
+                Value toStringValue = invokeMethod((ObjectReference) value, TO_STRING_METHOD, TO_STRING_METHOD_SIGNATURE, null, thread,
+                        evaluationEngine, deadline);
                 return variableFormatter.valueToString(toStringValue, options);
             } catch (InterruptedException | ExecutionException e) {
                 // do nothing.
@@ -95,6 +349,59 @@ public class VariableDetailUtils {
         return null;
     }
 
+    private static Value getEntryValue(ObjectReference entry, String methodName, String methodSignature, ThreadReference thread,
+            IEvaluationProvider evaluationEngine, long deadline) throws InterruptedException, ExecutionException, TimeoutException {
+        // The well-known entry implementations expose the key and value as plain fields, no need to invoke the accessor.
+        Field accessorField = JavaCollectionFieldWalker.getAccessorField(entry, methodName);
+        if (accessorField != null) {
+            return entry.getValue(accessorField);
+        }
+
+        return invokeMethod(entry, methodName, methodSignature, null, thread, evaluationEngine, deadline);
+    }
+
+    /**
+     * Clears the cached per-type answers of the VM, e.g. after its classes are redefined by hot code replace.
+     */
+    public static void invalidateTypeCapabilities(VirtualMachine vm) {
+        typeCapabilities.remove(vm);
+    }
+
+    private static TypeCapabilities getTypeCapabilities(ObjectReference obj) {
+        ReferenceType referenceType = obj.referenceType();
+        Map<ReferenceType, TypeCapabilities> vmTypeCapabilities = typeCapabilities.computeIfAbsent(referenceType.virtualMachine(),
+            vm -> Collections.synchronizedMap(new WeakHashMap<>()));
+        return vmTypeCapabilities.computeIfAbsent(referenceType, type -> new TypeCapabilities());
+    }
+
+    private static boolean overridesToString(ObjectReference obj) {
+        TypeCapabilities capabilities = getTypeCapabilities(obj);
+        if (capabilities.overridesToString == null) {
+            capabilities.overridesToString = containsToStringMethod(obj);
+        }
+
+        return capabilities.overridesToString;
+    }
+
+    private static String getInheritedCollectionType(ObjectReference obj) {
+        TypeCapabilities capabilities = getTypeCapabilities(obj);
+        if (!capabilities.isInheritedTypeResolved) {
+            capabilities.inheritedType = findInheritedType(obj, COLLECTION_TYPES);
+            capabilities.isInheritedTypeResolved = true;
+        }
+
+        return capabilities.inheritedType;
+    }
+
+    private static boolean isFormattable(ObjectReference obj) {
+        TypeCapabilities capabilities = getTypeCapabilities(obj);
+        if (capabilities.isFormattable == null) {
+            capabilities.isFormattable = findInheritedType(obj, FORMATTABLE_TYPES) != null;
+        }
+
+        return capabilities.isFormattable;
+    }
+
     private static boolean containsToStringMethod(ObjectReference obj) {
         ReferenceType refType = obj.referenceType();
         if (refType instanceof ClassType) {
@@ -162,7 +469,17 @@ public class VariableDetailUtils {
         if (!(value instanceof ObjectReference)) {
             return false;
         }
-        String inheritedType = findInheritedType(value, COLLECTION_TYPES);
+        TypeCapabilities capabilities = getTypeCapabilities((ObjectReference) value);
+        if (capabilities.isLazyLoadingSupported != null) {
+            return capabilities.isLazyLoadingSupported;
+        }
+
+        capabilities.isLazyLoadingSupported = resolveLazyLoadingSupported((ObjectReference) value);
+        return capabilities.isLazyLoadingSupported;
+    }
+
+    private static boolean resolveLazyLoadingSupported(ObjectReference obj) {
+        String inheritedType = getInheritedCollectionType(obj);
         // Map.Entry should not use lazy loading because its details computation
         // (getKey + getValue) is lightweight and showing "key:value" inline
         // significantly improves UX for large Maps. See
@@ -170,9 +487,46 @@ public class VariableDetailUtils {
         if (Objects.equals(inheritedType, ENTRY_TYPE)) {
             return false;
         }
-        if (inheritedType == null && !containsToStringMethod((ObjectReference) value)) {
+        if (inheritedType == null && !overridesToString(obj)) {
             return false;
         }
         return true;
     }
+
+    /**
+     * The details information computed for a batch of variables.
+     */
+    public static class BatchedDetails {
+        private final String[] details;
+        private final boolean[] resolved;
+
+        BatchedDetails(int size) {
+            this.details = new String[size];
+            this.resolved = new boolean[size];
+        }
+
+        void resolve(int index, String detailsValue) {
+            details[index] = detailsValue;
+            resolved[index] = true;
+        }
+
+        /**
+         * Returns whether the details of the variable at the specified index was computed within the time budget.
+         */
+        public boolean isResolved(int index) {
+            return resolved[index];
+        }
+
+        public String getDetails(int index) {
+            return details[index];
+        }
+    }
+
+    private static class TypeCapabilities {
+        volatile Boolean overridesToString;
+        volatile String inheritedType;
+        volatile boolean isInheritedTypeResolved = false;
+        volatile Boolean isLazyLoadingSupported;
+        volatile Boolean isFormattable;
+    }
 }
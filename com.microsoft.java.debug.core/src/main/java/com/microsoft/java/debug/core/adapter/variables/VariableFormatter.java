@@ -11,11 +11,14 @@
 
 package com.microsoft.java.debug.core.adapter.variables;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+import com.microsoft.java.debug.core.adapter.LRUCache;
 import com.microsoft.java.debug.core.adapter.formatter.IFormatter;
 import com.microsoft.java.debug.core.adapter.formatter.ITypeFormatter;
 import com.microsoft.java.debug.core.adapter.formatter.IValueFormatter;
@@ -23,8 +26,17 @@ import com.sun.jdi.Type;
 import com.sun.jdi.Value;
 
 public class VariableFormatter implements IVariableFormatter {
+    private static final int MAX_CACHE_ITEMS = 1000;
     private Map<IValueFormatter, Integer> valueFormatterMap;
     private Map<ITypeFormatter, Integer> typeFormatterMap;
+    /**
+     * Caches the selected formatter per (type signature, options), since the selection only depends on them.
+     * They are bounded since the signatures grow with every class seen in the session,
+     * and invalidated when a formatter is registered.
+     */
+    private final Map<FormatterKey, IValueFormatter> valueFormatterCache = Collections.synchronizedMap(new LRUCache<>(MAX_CACHE_ITEMS));
+    private final Map<FormatterKey, ITypeFormatter> typeFormatterCache = Collections.synchronizedMap(new LRUCache<>(MAX_CACHE_ITEMS));
+    private volatile Map<String, Object> defaultOptions;
 
     /**
      * Creates a variable formatter.
@@ -34,6 +46,19 @@ public class VariableFormatter implements IVariableFormatter {
         typeFormatterMap = new HashMap<>();
     }
 
+    @SuppressWarnings("unchecked")
+    private static <T extends IFormatter> T getCachedFormatter(Map<FormatterKey, T> formatterCache, Map<T, Integer> formatterMap,
+                                                               Type type, Map<String, Object> options) {
+        FormatterKey key = new FormatterKey(type == null ? null : type.signature(), options);
+        T formatter = formatterCache.get(key);
+        if (formatter == null) {
+            formatter = (T) getFormatter(formatterMap, type, options);
+            // The caller may change its options later, keep a copy in the key.
+            formatterCache.put(new FormatterKey(key.signature, options == null ? null : new HashMap<>(options)), formatter);
+        }
+        return formatter;
+    }
+
     private static IFormatter getFormatter(Map<? extends IFormatter, Integer> formatterMap, Type type,
                                            Map<String, Object> options) {
         List<? extends IFormatter> formatterList =
@@ -56,7 +81,7 @@ public class VariableFormatter implements IVariableFormatter {
      */
     @Override
     public String typeToString(Type type, Map<String, Object> options) {
-        IFormatter formatter = getFormatter(this.typeFormatterMap, type, options);
+        IFormatter formatter = getCachedFormatter(this.typeFormatterCache, this.typeFormatterMap, type, options);
         return formatter.toString(type, options);
     }
 
@@ -66,15 +91,21 @@ public class VariableFormatter implements IVariableFormatter {
      */
     @Override
     public Map<String, Object> getDefaultOptions() {
-        Map<String, Object> defaultOptions = new HashMap<>();
-        int count1 = valueFormatterMap.keySet().stream().mapToInt(
-            formatter -> this.mergeDefaultOptions(formatter, defaultOptions)).sum();
-        int count2 = typeFormatterMap.keySet().stream().mapToInt(
-            formatter -> this.mergeDefaultOptions(formatter, defaultOptions)).sum();
-        if (count1 + count2 != defaultOptions.size()) {
-            throw new IllegalStateException("There is some configuration conflicts on type and value formatters.");
+        Map<String, Object> cachedOptions = this.defaultOptions;
+        if (cachedOptions == null) {
+            Map<String, Object> mergedOptions = new HashMap<>();
+            int count1 = valueFormatterMap.keySet().stream().mapToInt(
+                formatter -> this.mergeDefaultOptions(formatter, mergedOptions)).sum();
+            int count2 = typeFormatterMap.keySet().stream().mapToInt(
+                formatter -> this.mergeDefaultOptions(formatter, mergedOptions)).sum();
+            if (count1 + count2 != mergedOptions.size()) {
+                throw new IllegalStateException("There is some configuration conflicts on type and value formatters.");
+            }
+            cachedOptions = mergedOptions;
+            this.defaultOptions = cachedOptions;
         }
-        return defaultOptions;
+        // The callers customize the returned options.
+        return new HashMap<>(cachedOptions);
     }
 
 
@@ -88,22 +119,30 @@ public class VariableFormatter implements IVariableFormatter {
     @Override
     public String valueToString(Value value, Map<String, Object> options) {
         Type type = value == null ? null : value.type();
-        IFormatter formatter = getFormatter(this.valueFormatterMap, type, options);
+        IFormatter formatter = getCachedFormatter(this.valueFormatterCache, this.valueFormatterMap, type, options);
         return formatter.toString(value, options);
     }
 
     @Override
     public Value stringToValue(String stringValue, Type type, Map<String, Object> options) {
-        IValueFormatter formatter = (IValueFormatter) getFormatter(this.valueFormatterMap, type, options);
+        IValueFormatter formatter = getCachedFormatter(this.valueFormatterCache, this.valueFormatterMap, type, options);
         return formatter.valueOf(stringValue, type, options);
     }
 
     public void registerValueFormatter(IValueFormatter formatter, int priority) {
         valueFormatterMap.put(formatter, priority);
+        invalidateCaches();
     }
 
     public void registerTypeFormatter(ITypeFormatter typeFormatter, int priority) {
         typeFormatterMap.put(typeFormatter, priority);
+        invalidateCaches();
+    }
+
+    private void invalidateCaches() {
+        valueFormatterCache.clear();
+        typeFormatterCache.clear();
+        defaultOptions = null;
     }
 
     private int mergeDefaultOptions(IFormatter formatter, Map<String, Object> options) {
@@ -114,4 +153,34 @@ public class VariableFormatter implements IVariableFormatter {
         }
         return count;
     }
+
+    private static class FormatterKey {
+        final String signature;
+        final Map<String, Object> options;
+        final int hashCode;
+
+        FormatterKey(String signature, Map<String, Object> options) {
+            this.signature = signature;
+            this.options = options;
+            this.hashCode = Objects.hash(signature, options);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FormatterKey)) {
+                return false;
+            }
+
+            FormatterKey other = (FormatterKey) obj;
+            return Objects.equals(signature, other.signature) && Objects.equals(options, other.options);
+        }
+    }
 }
@@ -257,7 +257,22 @@ public class Requests {
     }
 
     public static class ThreadsArguments extends Arguments {
-
+        /**
+         * Custom argument, only list the suspended threads.
+         */
+        public boolean suspendedOnly;
+        /**
+         * Custom argument, only list the threads of the thread group with this name.
+         */
+        public String threadGroup;
+        /**
+         * Custom argument, the index of the first thread to return, the threads are ordered by id.
+         */
+        public int startThread;
+        /**
+         * Custom argument, the maximum number of threads to return, 0 means all the threads.
+         */
+        public int maxThreads;
     }
 
     public static class ContinueArguments extends Arguments {
@@ -435,6 +450,61 @@ public class Requests {
         public String[] affectedRootPaths;
     }
 
+    public static class InstanceCountsArguments extends Arguments {
+        /**
+         * The suspended thread whose suspend epoch the result is cached for.
+         */
+        public long threadId;
+        /**
+         * The fully qualified names of the classes to count, all the loaded classes are counted if not specified.
+         */
+        public String[] classNames;
+        /**
+         * The maximum number of classes to return, the classes with the most instances first.
+         */
+        public int maxResults;
+    }
+
+    public static class InstancesArguments extends Arguments {
+        /**
+         * The suspended thread which owns the returned variablesReference.
+         */
+        public long threadId;
+        /**
+         * The fully qualified name of the class whose instances are listed.
+         */
+        public String className;
+        /**
+         * The maximum number of instances to fetch.
+         */
+        public int maxInstances;
+    }
+
+    public static class ReferringObjectsArguments extends Arguments {
+        /**
+         * The variablesReference of the object whose referrers are listed.
+         */
+        public int variablesReference;
+        /**
+         * The maximum number of referrers to fetch.
+         */
+        public int maxReferrers;
+    }
+
+    public static class AnalyzeMonitorsArguments extends Arguments {
+        /**
+         * The maximum number of contended monitors to return, the monitors with the most waiting threads first.
+         */
+        public int maxMonitors;
+    }
+
+    public static class ThreadDumpArguments extends Arguments {
+        /**
+         * The file to write the thread dump to, the thread dump is sent as console output events if not specified.
+         */
+        public String outputFile;
+    }
+
     public static enum Command {
         INITIALIZE("initialize", InitializeArguments.class),
         LAUNCH("launch", LaunchArguments.class),
@@ -474,6 +544,11 @@ public class Requests {
         PROCESSID("processId", Arguments.class),
         BREAKPOINTLOCATIONS("breakpointLocations", BreakpointLocationsArguments.class),
         REFRESHFRAMES("refreshFrames", RefreshFramesArguments.class),
+        INSTANCECOUNTS("instanceCounts", InstanceCountsArguments.class),
+        INSTANCES("instances", InstancesArguments.class),
+        REFERRINGOBJECTS("referringObjects", ReferringObjectsArguments.class),
+        ANALYZEMONITORS("analyzeMonitors", AnalyzeMonitorsArguments.class),
+        THREADDUMP("threadDump", ThreadDumpArguments.class),
         UNSUPPORTED("", Arguments.class);
 
         private String command;
@@ -154,6 +154,26 @@ public class Responses {
         }
     }
 
+    public static class AnalyzeMonitorsResponseBody extends ResponseBody {
+        public Types.Deadlock[] deadlocks;
+        public Types.ContendedMonitor[] contendedMonitors;
+
+        public AnalyzeMonitorsResponseBody(Types.Deadlock[] deadlocks, Types.ContendedMonitor[] contendedMonitors) {
+            this.deadlocks = deadlocks;
+            this.contendedMonitors = contendedMonitors;
+        }
+    }
+
+    public static class ThreadDumpResponseBody extends ResponseBody {
+        public int totalThreads;
+        public String outputFile;
+
+        public ThreadDumpResponseBody(int totalThreads, String outputFile) {
+            this.totalThreads = totalThreads;
+            this.outputFile = outputFile;
+        }
+    }
+
     public static class SourceResponseBody extends ResponseBody {
         public String content;
         public String mimeType = "text/x-java"; // Set mimeType to tell VSCode to recognize the source contents as java source.
@@ -170,6 +190,10 @@ public class Responses {
 
     public static class ThreadsResponseBody extends ResponseBody {
         public Types.Thread[] threads;
+        /**
+         * The number of threads matching the filters before paging, only set for the filtered or paged requests.
+         */
+        public Integer totalThreads;
 
         /**
          * Constructs a ThreadsResponseBody with the given thread list.
@@ -373,4 +397,27 @@ public class Responses {
             this.targets = targets;
         }
     }
+
+    public static class InstanceCountsResponseBody extends ResponseBody {
+        public Types.ClassInstanceCount[] classes;
+
+        public InstanceCountsResponseBody(Types.ClassInstanceCount[] classes) {
+            this.classes = classes;
+        }
+    }
+
+    public static class HeapObjectsResponseBody extends ResponseBody {
+        public String result;
+        public int variablesReference;
+        public int indexedVariables;
+
+        /**
+         * Constructor.
+         */
+        public HeapObjectsResponseBody(String result, int variablesReference, int indexedVariables) {
+            this.result = result;
+            this.variablesReference = variablesReference;
+            this.indexedVariables = indexedVariables;
+        }
+    }
 }
@@ -446,4 +446,77 @@ public class Types {
         }
     }
 
+    public static class ClassInstanceCount {
+        public String className;
+        public long count;
+
+        public ClassInstanceCount(String className, long count) {
+            this.className = className;
+            this.count = count;
+        }
+    }
+
+    /**
+     * A thread of a deadlock cycle, it waits for a monitor owned by the next thread of the cycle.
+     */
+    public static class DeadlockedThread {
+        public long threadId;
+        public String threadName;
+        public String waitingFor;
+        /**
+         * The top frame of the thread, where it's blocked.
+         */
+        public int frameId;
+        public long ownerThreadId;
+        /**
+         * The frame of the owner thread which acquired the monitor, or 0 if unknown.
+         */
+        public int ownerFrameId;
+
+        /**
+         * Constructor.
+         */
+        public DeadlockedThread(long threadId, String threadName, String waitingFor, int frameId, long ownerThreadId, int ownerFrameId) {
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.waitingFor = waitingFor;
+            this.frameId = frameId;
+            this.ownerThreadId = ownerThreadId;
+            this.ownerFrameId = ownerFrameId;
+        }
+    }
+
+    public static class Deadlock {
+        public DeadlockedThread[] threads;
+
+        public Deadlock(DeadlockedThread[] threads) {
+            this.threads = threads;
+        }
+    }
+
+    public static class ContendedMonitor {
+        public String monitor;
+        /**
+         * The owner thread of the monitor, or 0 if it's not owned by any thread anymore.
+         */
+        public long ownerThreadId;
+        public String ownerThreadName;
+        /**
+         * The frame of the owner thread which acquired the monitor, or 0 if unknown.
+         */
+        public int ownerFrameId;
+        public long[] waitingThreadIds;
+
+        /**
+         * Constructor.
+         */
+        public ContendedMonitor(String monitor, long ownerThreadId, String ownerThreadName, int ownerFrameId, long[] waitingThreadIds) {
+            this.monitor = monitor;
+            this.ownerThreadId = ownerThreadId;
+            this.ownerThreadName = ownerThreadName;
+            this.ownerFrameId = ownerFrameId;
+            this.waitingThreadIds = waitingThreadIds;
+        }
+    }
+
 }
@@ -0,0 +1,64 @@
+/*******************************************************************************
+* Copyright (c) 2026 Microsoft Corporation and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*     Microsoft Corporation - initial API and implementation
+*******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class IdCollectionTest {
+    @Test
+    public void testCreate() throws Exception {
+        IdCollection<String> collection = new IdCollection<>();
+        int id = collection.create("a");
+        assertEquals("Should start from the start id.", 1, id);
+        assertEquals("Should return the existing id.", id, collection.create("a"));
+        assertEquals("Should create the next id.", 2, collection.create("b"));
+        assertEquals("Should get the value.", "a", collection.get(id));
+        assertEquals("Should remove the value.", "a", collection.remove(id));
+        assertNull("Should remove the value.", collection.get(id));
+        assertNotEquals("Should not reuse the removed id.", id, collection.create("a"));
+    }
+
+    @Test
+    public void testGenerations() throws Exception {
+        IdCollection<String> collection = new IdCollection<>();
+        int staleId = collection.create("a");
+        collection.reset();
+        int id = collection.create("b");
+        assertNotEquals("Should not alias the id of the previous generation.", staleId, id);
+        assertNull("Should not resolve the stale id.", collection.get(staleId));
+        assertEquals("Should resolve the new id.", "b", collection.get(id));
+        assertTrue("Should keep the ids positive.", id > 0);
+    }
+
+    @Test
+    public void testLookupMany() throws Exception {
+        final int size = 10000;
+        IdCollection<String> collection = new IdCollection<>();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            expected.put(collection.create("value" + i), "value" + i);
+        }
+
+        assertEquals("Should create distinct ids.", size, expected.size());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertEquals("Should resolve the value of the id.", entry.getValue(), collection.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+* Copyright (c) 2026 Microsoft Corporation and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*     Microsoft Corporation - initial API and implementation
+*******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntObjectMapTest {
+    @Test
+    public void testPutGetRemove() throws Exception {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertNull("Should be initial empty.", map.get(1));
+        assertNull("Should add the new key.", map.put(1, "a"));
+        assertEquals("Should replace the value.", "a", map.put(1, "b"));
+        assertEquals("Should get the value.", "b", map.get(1));
+        assertEquals("Should be the right size.", 1, map.size());
+        assertEquals("Should remove the key.", "b", map.remove(1));
+        assertNull("Should remove the key.", map.get(1));
+        assertEquals("Should be the right size.", 0, map.size());
+    }
+
+    @Test
+    public void testRandomOperations() throws Exception {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals("Should remove the same value.", expected.remove(key), map.remove(key));
+            } else {
+                assertEquals("Should put the same value.", expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        assertEquals("Should be the right size.", expected.size(), map.size());
+        for (int key = 0; key < 5000; key++) {
+            assertEquals("Should get the same value.", expected.get(key), map.get(key));
+        }
+
+        map.clear();
+        assertEquals("Should be empty after clear.", 0, map.size());
+        assertNull("Should be empty after clear.", map.get(1));
+    }
+}
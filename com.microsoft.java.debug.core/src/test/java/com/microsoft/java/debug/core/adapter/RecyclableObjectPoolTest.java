@@ -0,0 +1,102 @@
+/*******************************************************************************
+* Copyright (c) 2026 Microsoft Corporation and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*     Microsoft Corporation - initial API and implementation
+*******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class RecyclableObjectPoolTest {
+    @Test
+    public void testRecycleByOwner() throws Exception {
+        RecyclableObjectPool<Long, String> pool = new RecyclableObjectPool<>();
+        int id = pool.addObject(1L, "a");
+        assertEquals("Should reuse the id of the duplicate object.", id, pool.addObject(2L, "a"));
+        int otherId = pool.addObject(1L, "b");
+        assertNotEquals("Should create a new id.", id, otherId);
+
+        assertTrue("Should recycle the objects of the owner.", pool.removeObjectsByOwner(1L));
+        assertEquals("Should keep the object referred by other owners.", "a", pool.getObjectById(id));
+        assertNull("Should remove the object without owners.", pool.getObjectById(otherId));
+        assertFalse("Should do nothing for the unknown owner.", pool.removeObjectsByOwner(3L));
+    }
+
+    @Test
+    public void testStableIds() throws Exception {
+        RecyclableObjectPool<Long, String> pool = new RecyclableObjectPool<>(object -> object.startsWith("stable"));
+        int stableId = pool.addObject(1L, "stable");
+        int id = pool.addObject(1L, "other");
+        pool.removeObjectsByOwner(1L);
+        assertNull("Should recycle the object.", pool.getObjectById(stableId));
+        assertTrue("Should detect the id removed with its owner.", pool.isStale(id));
+        assertFalse("Should not treat an id never handed out as stale.", pool.isStale(id + 1000));
+        assertFalse("Should not treat an id of a later generation as stale.", pool.isStale(id + (5 << IdGenerator.SEQUENCE_BITS)));
+
+        assertNotEquals("Should create a new id for the filtered out object.", id, pool.addObject(1L, "other"));
+        assertEquals("Should get the original id back.", stableId, pool.addObject(1L, "stable"));
+        assertEquals("Should resolve the object by the original id.", "stable", pool.getObjectById(stableId));
+
+        pool.removeAllObjects();
+        assertTrue("Should detect the stale id.", pool.isStale(stableId));
+        int newId = pool.addObject(1L, "stable2");
+        assertNotEquals("Should not alias the stale id.", stableId, newId);
+        assertNull("Should not resolve the stale id.", pool.getObjectById(stableId));
+        assertFalse("Should not treat the new id as stale.", pool.isStale(newId));
+        assertNotEquals("Should not remember the ids after removing all objects.", stableId, pool.addObject(1L, "stable"));
+    }
+
+    @Test
+    public void testRemoveObjectById() throws Exception {
+        RecyclableObjectPool<Long, String> pool = new RecyclableObjectPool<>();
+        int id = pool.addObject(1L, "a");
+        pool.addObject(2L, "a");
+        assertTrue("Should remove the object.", pool.removeObjectById(id));
+        assertFalse("Should not remove twice.", pool.removeObjectById(id));
+        assertFalse("Should drop the owner links of the removed object.", pool.removeObjectsByOwner(1L));
+        assertNotEquals("Should add the object again.", id, pool.addObject(2L, "a"));
+    }
+
+    @Test
+    public void testLookupDuringRecycle() throws Exception {
+        RecyclableObjectPool<Long, String> pool = new RecyclableObjectPool<>();
+        int keptId = pool.addObject(0L, "kept");
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        List<Throwable> errors = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            while (!stopped.get()) {
+                if (!"kept".equals(pool.getObjectById(keptId))) {
+                    errors.add(new AssertionError("Should always resolve the object of another owner."));
+                    return;
+                }
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 1000; i++) {
+                pool.addObject(1L, round + ":" + i);
+            }
+            assertTrue("Should recycle the objects of the owner.", pool.removeObjectsByOwner(1L));
+        }
+        stopped.set(true);
+        reader.join();
+        assertTrue("Should not fail the lookups.", errors.isEmpty());
+        assertEquals("Should keep the object of another owner.", "kept", pool.getObjectById(keptId));
+    }
+}
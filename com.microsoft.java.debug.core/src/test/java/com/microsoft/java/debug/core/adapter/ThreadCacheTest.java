@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.easymock.EasyMockSupport;
+import org.junit.Test;
+
+import com.sun.jdi.ThreadReference;
+
+public class ThreadCacheTest extends EasyMockSupport {
+    @Test
+    public void testThreadEvents() throws Exception {
+        ThreadReference main = mockThread(1);
+        ThreadReference worker = mockThread(2);
+        ThreadReference virtual = mockThread(3);
+        replayAll();
+
+        ThreadCache cache = new ThreadCache();
+        cache.resetThreads(Arrays.asList(main));
+        assertSame("Should find the thread by id.", main, cache.getThread(1));
+        assertNull("Should not find the unknown thread.", cache.getThread(2));
+
+        cache.addThread(worker);
+        cache.addEventThread(virtual, "breakpoint");
+        assertSame("Should track the started thread.", worker, cache.getThread(2));
+        assertSame("Should find the event thread.", virtual, cache.getThread(3));
+        assertEquals("Should list the visible threads.", Arrays.asList(main, worker, virtual), cache.visibleThreads(null));
+
+        cache.addDeathThread(2);
+        assertNull("Should forget the dead thread.", cache.getThread(2));
+        assertEquals("Should rebuild the visible threads.", Arrays.asList(main, virtual), cache.visibleThreads(null));
+        verifyAll();
+    }
+
+    @Test
+    public void testVisibleThreadsSnapshot() throws Exception {
+        ThreadReference main = mockThread(1);
+        replayAll();
+
+        ThreadCache cache = new ThreadCache();
+        cache.resetThreads(Arrays.asList(main));
+        assertSame("Should reuse the snapshot if nothing changes.", cache.visibleThreads(null), cache.visibleThreads(null));
+
+        cache.addEventThread(main, "step");
+        assertEquals("Should not duplicate the event thread.", Arrays.asList(main), cache.visibleThreads(null));
+        verifyAll();
+    }
+
+    @Test
+    public void testThreadNames() throws Exception {
+        ThreadCache cache = new ThreadCache();
+        cache.setThreadName(1, "main");
+        assertEquals("Should cache the name.", "main", cache.getThreadName(1));
+        assertFalse("Should be fresh.", cache.isThreadNameStale(1));
+
+        cache.invalidateThreadNames();
+        assertEquals("Should keep the stale name.", "main", cache.getThreadName(1));
+        assertTrue("Should be stale after the threads resume.", cache.isThreadNameStale(1));
+
+        cache.setThreadName(1, "renamed");
+        assertFalse("Should be refreshed.", cache.isThreadNameStale(1));
+        cache.setThreadName(2, "worker");
+        cache.invalidateThreadName(2);
+        assertFalse("Should keep the name of the suspended thread fresh.", cache.isThreadNameStale(1));
+        assertTrue("Should be stale after the thread resumes.", cache.isThreadNameStale(2));
+        cache.setThreadGroupName(1, "main");
+        cache.addDeathThread(1);
+        assertNull("Should drop the name of the dead thread.", cache.getThreadName(1));
+        assertNull("Should drop the group of the dead thread.", cache.getThreadGroupName(1));
+    }
+
+    @Test
+    public void testSelfSuspendedThreads() throws Exception {
+        ThreadReference worker = mockThread(2);
+        replayAll();
+
+        ThreadCache cache = new ThreadCache();
+        cache.addEventThread(worker, "breakpoint");
+        cache.addSelfSuspendedThread(3);
+        assertEquals("Should track the self suspended threads.", new HashSet<>(Arrays.asList(2L, 3L)), cache.getSelfSuspendedThreads());
+
+        cache.removeEventThread(2);
+        assertEquals("Should forget the resumed thread.", Collections.singleton(3L), cache.getSelfSuspendedThreads());
+        cache.clearEventThread();
+        assertTrue("Should forget all after resuming the VM.", cache.getSelfSuspendedThreads().isEmpty());
+        verifyAll();
+    }
+
+    private ThreadReference mockThread(long id) {
+        ThreadReference thread = createMock(ThreadReference.class);
+        expect(thread.uniqueID()).andReturn(id).anyTimes();
+        return thread;
+    }
+}
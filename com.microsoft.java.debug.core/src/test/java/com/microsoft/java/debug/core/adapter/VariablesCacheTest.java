@@ -0,0 +1,128 @@
+/*******************************************************************************
+* Copyright (c) 2026 Microsoft Corporation and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*     Microsoft Corporation - initial API and implementation
+*******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microsoft.java.debug.core.DebugSettings;
+import com.microsoft.java.debug.core.adapter.variables.Variable;
+import com.sun.jdi.ObjectReference;
+
+public class VariablesCacheTest extends BaseJdiTestCase {
+    private static final long THREAD_ID = 1;
+    private VariablesCache cache;
+    private ObjectReference obj;
+    private int originalCacheSize;
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        cache = new VariablesCache();
+        obj = (ObjectReference) this.getLocalValue("obj");
+        originalCacheSize = DebugSettings.getCurrent().variablesCacheSize;
+    }
+
+    @After
+    public void restoreSettings() {
+        DebugSettings.getCurrent().variablesCacheSize = originalCacheSize;
+    }
+
+    @Test
+    public void testChildrenWithinEpoch() throws Exception {
+        long epoch = cache.getSuspendEpoch(THREAD_ID);
+        List<Variable> children = Arrays.asList(new Variable("a", null), new Variable("b", null));
+        cache.putChildren(THREAD_ID, epoch, obj, "all", children);
+        assertEquals("Should return the cached children.", children, cache.getChildren(THREAD_ID, epoch, obj, "all"));
+        assertNull("Should be keyed by the discriminator.", cache.getChildren(THREAD_ID, epoch, obj, "page"));
+        assertNull("Should be keyed by the thread.", cache.getChildren(THREAD_ID + 1, epoch, obj, "all"));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        long epoch = cache.getSuspendEpoch(THREAD_ID);
+        Map<String, Object> options = Collections.singletonMap("hex", true);
+        cache.putFormattedValue(THREAD_ID, epoch, obj, options, "Object@1");
+        assertEquals("Should return the cached value.", "Object@1", cache.getFormattedValue(THREAD_ID, epoch, obj, options));
+        assertNull("Should be keyed by the formatter options.", cache.getFormattedValue(THREAD_ID, epoch, obj, Collections.emptyMap()));
+
+        cache.invalidate(THREAD_ID);
+        long newEpoch = cache.getSuspendEpoch(THREAD_ID);
+        assertNotEquals("Should start a new epoch.", epoch, newEpoch);
+        assertNull("Should drop the entries of the thread.", cache.getFormattedValue(THREAD_ID, epoch, obj, options));
+
+        cache.putFormattedValue(THREAD_ID, epoch, obj, options, "Object@1");
+        assertNull("Should ignore the entries of a stale epoch.", cache.getFormattedValue(THREAD_ID, epoch, obj, options));
+    }
+
+    @Test
+    public void testQueryResult() throws Exception {
+        long epoch = cache.getSuspendEpoch(THREAD_ID);
+        List<Object> query = Arrays.asList("instances", "Foo", 10);
+        cache.putQueryResult(THREAD_ID, epoch, query, "result");
+        assertEquals("Should return the cached result.", "result", cache.getQueryResult(THREAD_ID, epoch, Arrays.asList("instances", "Foo", 10)));
+        assertNull("Should be keyed by the query parameters.", cache.getQueryResult(THREAD_ID, epoch, Arrays.asList("instances", "Foo", 20)));
+
+        cache.invalidate(THREAD_ID);
+        assertNull("Should drop the result when the thread resumes.", cache.getQueryResult(THREAD_ID, cache.getSuspendEpoch(THREAD_ID), query));
+    }
+
+    @Test
+    public void testThreadSuspendedAlone() throws Exception {
+        // The other threads keep running, e.g. the breakpoints suspend the event thread only.
+        long otherThreadId = THREAD_ID + 1;
+        long epoch = cache.getSuspendEpoch(THREAD_ID);
+        long otherEpoch = cache.getSuspendEpoch(otherThreadId);
+        List<Object> query = Arrays.asList("instances", "Foo", 10);
+        cache.putQueryResult(THREAD_ID, epoch, query, "result");
+        assertEquals("Should cache while the thread is suspended alone.", "result", cache.getQueryResult(THREAD_ID, epoch, query));
+
+        cache.invalidate(otherThreadId);
+        assertEquals("Should keep the epoch of the thread when another thread resumes.", epoch, cache.getSuspendEpoch(THREAD_ID));
+        assertNotEquals("Should start a new epoch for the resumed thread.", otherEpoch, cache.getSuspendEpoch(otherThreadId));
+        assertNull("Should drop the entries of all the threads when any thread resumes.", cache.getQueryResult(THREAD_ID, epoch, query));
+
+        cache.putQueryResult(THREAD_ID, epoch, query, "result");
+        assertEquals("Should cache again for the thread still suspended.", "result", cache.getQueryResult(THREAD_ID, epoch, query));
+        cache.putQueryResult(otherThreadId, otherEpoch, query, "result");
+        assertNull("Should ignore the entries of the stale epoch.", cache.getQueryResult(otherThreadId, otherEpoch, query));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        long epoch = cache.getSuspendEpoch(THREAD_ID);
+        cache.invalidate(THREAD_ID + 1);
+        long otherEpoch = cache.getSuspendEpoch(THREAD_ID + 1);
+        cache.clear();
+        assertNotEquals("Should start a new epoch for all the threads.", epoch, cache.getSuspendEpoch(THREAD_ID));
+        assertNotEquals("Should start a new epoch for all the threads.", otherEpoch, cache.getSuspendEpoch(THREAD_ID + 1));
+        assertNotEquals("Should never reuse an epoch.", cache.getSuspendEpoch(THREAD_ID), otherEpoch);
+    }
+
+    @Test
+    public void testMemoryBound() throws Exception {
+        DebugSettings.getCurrent().variablesCacheSize = 0;
+        long epoch = cache.getSuspendEpoch(THREAD_ID);
+        cache.putChildren(THREAD_ID, epoch, obj, "all", Collections.emptyList());
+        assertNull("Should be disabled by the zero size.", cache.getChildren(THREAD_ID, epoch, obj, "all"));
+    }
+}
@@ -71,6 +71,9 @@ public class StringObjectFormatterTest extends BaseJdiTestCase {
         options.put(MAX_STRING_LENGTH_OPTION, 5);
         assertEquals("Should be able to format string type.", "\"st...\"",
             formatter.toString(string, options));
+        options.put(MAX_STRING_LENGTH_OPTION, 11);
+        assertEquals("Should not abbreviate the string within the limit.", "\"string test\"",
+            formatter.toString(string, options));
         assertTrue("Should not trim long string by default",
             formatter.toString(string, new HashMap<>()).contains(((StringReference) string).value()));
     }
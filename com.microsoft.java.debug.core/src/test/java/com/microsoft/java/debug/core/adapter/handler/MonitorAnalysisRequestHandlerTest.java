@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class MonitorAnalysisRequestHandlerTest {
+    @Test
+    public void testFindDeadlocks() {
+        Map<Long, Long> waitsFor = new HashMap<>();
+        // 5 -> 3 -> 7 -> 5 is a deadlock, 9 and 10 are only blocked by it.
+        waitsFor.put(5L, 3L);
+        waitsFor.put(3L, 7L);
+        waitsFor.put(7L, 5L);
+        waitsFor.put(9L, 7L);
+        waitsFor.put(10L, 9L);
+        // 20 <-> 21 is another deadlock.
+        waitsFor.put(21L, 20L);
+        waitsFor.put(20L, 21L);
+
+        List<List<Long>> deadlocks = MonitorAnalysisRequestHandler.findDeadlocks(waitsFor);
+        assertEquals("Should find both deadlocks.", 2, deadlocks.size());
+        assertEquals("Should list the cycle from its smallest thread.", Arrays.asList(3L, 7L, 5L), deadlocks.get(0));
+        assertEquals(Arrays.asList(20L, 21L), deadlocks.get(1));
+    }
+
+    @Test
+    public void testNoDeadlock() {
+        Map<Long, Long> waitsFor = new HashMap<>();
+        waitsFor.put(1L, 2L);
+        waitsFor.put(2L, 3L);
+        waitsFor.put(4L, 3L);
+
+        assertTrue("A chain of blocked threads is not a deadlock.", MonitorAnalysisRequestHandler.findDeadlocks(waitsFor).isEmpty());
+    }
+}
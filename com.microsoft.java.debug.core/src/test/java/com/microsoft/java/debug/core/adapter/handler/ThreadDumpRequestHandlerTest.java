@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.sun.jdi.ThreadReference;
+
+public class ThreadDumpRequestHandlerTest {
+    @Test
+    public void testFormatFrame() {
+        assertEquals("com.example.Foo.bar(Foo.java:12)", ThreadDumpRequestHandler.formatFrame("com.example.Foo", "bar", "Foo.java", 12, false));
+        assertEquals("com.example.Foo.bar(Foo.java)", ThreadDumpRequestHandler.formatFrame("com.example.Foo", "bar", "Foo.java", -1, false));
+        assertEquals("com.example.Foo.bar(Unknown Source)", ThreadDumpRequestHandler.formatFrame("com.example.Foo", "bar", null, 12, false));
+        assertEquals("java.lang.Thread.sleep(Native Method)", ThreadDumpRequestHandler.formatFrame("java.lang.Thread", "sleep", "Thread.java", -1, true));
+    }
+
+    @Test
+    public void testThreadState() {
+        assertEquals("RUNNABLE", ThreadDumpRequestHandler.getThreadState(ThreadReference.THREAD_STATUS_RUNNING));
+        assertEquals("BLOCKED (on object monitor)", ThreadDumpRequestHandler.getThreadState(ThreadReference.THREAD_STATUS_MONITOR));
+        assertEquals("UNKNOWN", ThreadDumpRequestHandler.getThreadState(ThreadReference.THREAD_STATUS_UNKNOWN));
+    }
+}
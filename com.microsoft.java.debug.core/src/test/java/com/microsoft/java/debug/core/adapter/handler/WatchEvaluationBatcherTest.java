@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.handler;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.easymock.EasyMockSupport;
+import org.junit.Test;
+
+import com.microsoft.java.debug.core.adapter.IEvaluationProvider;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.Value;
+
+public class WatchEvaluationBatcherTest extends EasyMockSupport {
+    @Test
+    public void testSingleWatch() throws Exception {
+        ThreadReference thread = mockThread(1);
+        IEvaluationProvider engine = createMock(IEvaluationProvider.class);
+        Value value = createMock(Value.class);
+        expect(engine.evaluate(Arrays.asList("a"), thread, 0))
+                .andReturn(Arrays.asList(CompletableFuture.completedFuture(value)));
+        replayAll();
+
+        CompletableFuture<Value> a = new WatchEvaluationBatcher().evaluate(engine, "a", thread, 0);
+        assertTrue("Should evaluate a single watch at once.", a.isDone());
+        assertSame("Should answer the expression.", value, a.get());
+        verifyAll();
+    }
+
+    @Test
+    public void testBatchSameFrame() throws Exception {
+        ThreadReference thread = mockThread(1);
+        IEvaluationProvider engine = createMock(IEvaluationProvider.class);
+        Value first = createMock(Value.class);
+        Value second = createMock(Value.class);
+        Value third = createMock(Value.class);
+        CompletableFuture<Value> running = new CompletableFuture<>();
+        expect(engine.evaluate(Arrays.asList("a"), thread, 0)).andReturn(Arrays.asList(running));
+        expect(engine.evaluate(Arrays.asList("b", "c"), thread, 0))
+                .andReturn(Arrays.asList(CompletableFuture.completedFuture(second), CompletableFuture.completedFuture(third)));
+        replayAll();
+
+        WatchEvaluationBatcher batcher = new WatchEvaluationBatcher();
+        CompletableFuture<Value> a = batcher.evaluate(engine, "a", thread, 0);
+        CompletableFuture<Value> b = batcher.evaluate(engine, "b", thread, 0);
+        CompletableFuture<Value> c = batcher.evaluate(engine, "c", thread, 0);
+        assertFalse("Should wait for the running evaluation.", b.isDone());
+        running.complete(first);
+        assertSame("Should answer the first expression.", first, a.get());
+        assertSame("Should answer the second expression.", second, b.get());
+        assertSame("Should answer the third expression.", third, c.get());
+        verifyAll();
+    }
+
+    @Test
+    public void testSeparateFrames() throws Exception {
+        ThreadReference thread = mockThread(1);
+        IEvaluationProvider engine = createMock(IEvaluationProvider.class);
+        Value top = createMock(Value.class);
+        expect(engine.evaluate(Arrays.asList("a"), thread, 0))
+                .andReturn(Arrays.asList(CompletableFuture.completedFuture(top)));
+        expect(engine.evaluate(Arrays.asList("a"), thread, 1))
+                .andReturn(Arrays.asList(CompletableFuture.failedFuture(new IllegalStateException("frame 1"))));
+        replayAll();
+
+        WatchEvaluationBatcher batcher = new WatchEvaluationBatcher();
+        CompletableFuture<Value> topResult = batcher.evaluate(engine, "a", thread, 0);
+        CompletableFuture<Value> callerResult = batcher.evaluate(engine, "a", thread, 1);
+        assertSame("Should evaluate at the top frame.", top, topResult.get());
+        try {
+            callerResult.get();
+            assertTrue("Should fail the evaluation at the caller frame.", false);
+        } catch (ExecutionException e) {
+            assertTrue("Should propagate the evaluation error.", e.getCause() instanceof IllegalStateException);
+        }
+        verifyAll();
+    }
+
+    private ThreadReference mockThread(long id) {
+        ThreadReference thread = createMock(ThreadReference.class);
+        expect(thread.uniqueID()).andReturn(id).anyTimes();
+        return thread;
+    }
+}
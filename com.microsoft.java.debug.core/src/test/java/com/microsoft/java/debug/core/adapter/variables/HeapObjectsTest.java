@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.microsoft.java.debug.core.adapter.BaseJdiTestCase;
+import com.sun.jdi.ObjectReference;
+
+public class HeapObjectsTest extends BaseJdiTestCase {
+    @Test
+    public void testPaging() throws Exception {
+        List<ObjectReference> instances = this.getVM().classesByName("java.lang.String").get(0).instances(5);
+        assertTrue("Should find the instances.", instances.size() > 2);
+        HeapObjects heapObjects = new HeapObjects("strings", instances);
+
+        List<Variable> page = heapObjects.getVariables(1, 2);
+        assertEquals("Should list the objects in the range.", 2, page.size());
+        assertEquals("Should name the object by index.", "1", page.get(0).name);
+        assertEquals("Should list the object.", instances.get(1), page.get(0).value);
+        assertNull("Should not be evaluable.", page.get(0).evaluateName);
+
+        assertEquals("Should list the remaining objects.", instances.size(), heapObjects.getVariables(0, 0).size());
+        assertTrue("Should list nothing out of range.", heapObjects.getVariables(instances.size(), 10).isEmpty());
+    }
+}
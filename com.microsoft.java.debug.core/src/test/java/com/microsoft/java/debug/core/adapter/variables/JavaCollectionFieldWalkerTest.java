@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microsoft.java.debug.core.adapter.BaseJdiTestCase;
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.Field;
+import com.sun.jdi.IntegerValue;
+import com.sun.jdi.Method;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.StringReference;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.Value;
+
+public class JavaCollectionFieldWalkerTest extends BaseJdiTestCase {
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+    }
+
+    @Test
+    public void testArrayList() throws Exception {
+        ObjectReference list = (ObjectReference) this.getLocalValue("strList");
+        assertTrue("ArrayList should be supported.", JavaCollectionFieldWalker.isSupported(list));
+        assertEquals("Should read the size of ArrayList.", 2, JavaCollectionFieldWalker.getSize(list));
+        assertEquals("Should use the List evaluate name.", "get(%s)", JavaCollectionFieldWalker.getElementsEvaluateName(list));
+
+        List<Value> elements = JavaCollectionFieldWalker.getElements(list, 0, 0);
+        assertEquals("Should read all the elements.", 2, elements.size());
+        assertEquals("Should keep the element order.", this.getLocalValue("str"), elements.get(0));
+        assertNull("Should keep the null element.", elements.get(1));
+
+        List<Value> page = JavaCollectionFieldWalker.getElements(list, 1, 1);
+        assertEquals("Should read the requested page.", 1, page.size());
+        assertNull("Should read the requested page.", page.get(0));
+        assertTrue("Should return empty page beyond the size.", JavaCollectionFieldWalker.getElements(list, 5, 10).isEmpty());
+    }
+
+    @Test
+    public void testHashMap() throws Exception {
+        ObjectReference map = (ObjectReference) this.getLocalValue("map");
+        assertTrue("HashMap should be supported.", JavaCollectionFieldWalker.isSupported(map));
+        assertEquals("Should read the size of HashMap.", 1, JavaCollectionFieldWalker.getSize(map));
+        assertEquals("Should use the Map evaluate name.", "entrySet().toArray()", JavaCollectionFieldWalker.getElementsEvaluateName(map));
+
+        List<Value> entries = JavaCollectionFieldWalker.getElements(map, 0, 0);
+        assertEquals("Should read all the entries.", 1, entries.size());
+        ObjectReference entry = (ObjectReference) entries.get(0);
+        Field keyField = JavaCollectionFieldWalker.getAccessorField(entry, "getKey");
+        Field valueField = JavaCollectionFieldWalker.getAccessorField(entry, "getValue");
+        assertNotNull("Should map getKey() to a field.", keyField);
+        assertNotNull("Should map getValue() to a field.", valueField);
+        assertEquals("Should read the entry key.", "a", ((StringReference) entry.getValue(keyField)).value());
+        assertNotNull("Should read the entry value.", entry.getValue(valueField));
+        assertNull("Should not map unknown accessors.", JavaCollectionFieldWalker.getAccessorField(entry, "hashCode"));
+    }
+
+    @Test
+    public void testUnsupportedType() throws Exception {
+        ObjectReference obj = (ObjectReference) this.getLocalValue("obj");
+        assertFalse("Object should not be supported.", JavaCollectionFieldWalker.isSupported(obj));
+        assertEquals("Should not resolve the size.", -1, JavaCollectionFieldWalker.getSize(obj));
+        assertNull("Should fall back for unknown types.", JavaCollectionFieldWalker.getElements(obj, 0, 0));
+        assertNull("Should fall back for unknown types.", JavaCollectionFieldWalker.getAccessorField(obj, "getKey"));
+    }
+
+    @Test
+    public void testFieldWalkMatchesMethodInvocation() throws Exception {
+        ObjectReference list = (ObjectReference) this.getLocalValue("strList");
+        // The field walk reads the fields only, it takes no thread to invoke the methods of the target with.
+        int walkedSize = JavaCollectionFieldWalker.getSize(list);
+        List<Value> walkedElements = JavaCollectionFieldWalker.getElements(list, 0, 0);
+
+        ThreadReference thread = staticBreakpointEvent.thread();
+        Method sizeMethod = list.referenceType().methodsByName("size", "()I").get(0);
+        Method toArrayMethod = list.referenceType().methodsByName("toArray", "()[Ljava/lang/Object;").get(0);
+        int invokedSize = ((IntegerValue) list.invokeMethod(thread, sizeMethod, Collections.emptyList(),
+            ObjectReference.INVOKE_SINGLE_THREADED)).value();
+        List<Value> invokedElements = ((ArrayReference) list.invokeMethod(thread, toArrayMethod, Collections.emptyList(),
+            ObjectReference.INVOKE_SINGLE_THREADED)).getValues();
+        assertEquals("Should resolve the same size.", invokedSize, walkedSize);
+        assertEquals("Should resolve the same elements.", invokedElements, walkedElements);
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import com.microsoft.java.debug.core.adapter.BaseJdiTestCase;
+import com.sun.jdi.StringReference;
+
+public class StringReferenceUtilsTest extends BaseJdiTestCase {
+    @Test
+    public void testPrefix() throws Exception {
+        StringReference str = (StringReference) this.getLocalValue("str");
+        assertEquals("Should read the prefix.", "str", StringReferenceUtils.getValue(str, 3));
+        assertEquals("Should read the whole string within the limit.", "string test", StringReferenceUtils.getValue(str, 100));
+        assertEquals("Should read the whole string.", "string test", StringReferenceUtils.getValue(str));
+    }
+
+    @Test
+    public void testUtf16() throws Exception {
+        StringReference str = this.getVM().mirrorOf("\u4e2d\u6587 string \u00e9\u20ac");
+        str.disableCollection();
+        try {
+            assertEquals("Should read the prefix of a UTF16 string.", "\u4e2d\u6587 s", StringReferenceUtils.readPrefix(str, 4));
+            assertEquals("Should read the whole UTF16 string.", str.value(), StringReferenceUtils.readPrefix(str, Integer.MAX_VALUE));
+        } finally {
+            str.enableCollection();
+        }
+    }
+
+    @Test
+    public void testChunks() throws Exception {
+        String value = StringUtils.repeat("0123456789", 20000);
+        StringReference str = this.getVM().mirrorOf(value);
+        str.disableCollection();
+        try {
+            assertEquals("Should read the string in chunks.", value, StringReferenceUtils.readPrefix(str, Integer.MAX_VALUE));
+            assertEquals("Should read a prefix across the chunks.", value.substring(0, 70000), StringReferenceUtils.readPrefix(str, 70000));
+        } finally {
+            str.enableCollection();
+        }
+    }
+
+    @Test
+    public void testProxy() throws Exception {
+        StringReference str = (StringReference) this.getLocalValue("str");
+        StringReference proxy = new StringReferenceProxy(str, "cached");
+        assertEquals("Should read the cached value of the proxy.", "cac", StringReferenceUtils.getValue(proxy, 3));
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        StringReference str = (StringReference) this.getLocalValue("str");
+        StringReference prefix = StringReferenceUtils.prefetch(str, 4);
+        assertEquals("Should answer the prefetched prefix.", "stri", StringReferenceUtils.getValue(prefix, 4));
+        assertEquals("Should read beyond the prefetched prefix.", "string test", StringReferenceUtils.getValue(prefix));
+        assertEquals("Should read the whole string through the prefix proxy.", "string test", prefix.value());
+
+        StringReference whole = StringReferenceUtils.prefetch(str, 100);
+        assertTrue("Should hold the whole string within the limit.", whole instanceof StringReferenceProxy);
+        assertEquals("Should answer the prefetched string.", "string test", StringReferenceUtils.getValue(whole, 100));
+    }
+}
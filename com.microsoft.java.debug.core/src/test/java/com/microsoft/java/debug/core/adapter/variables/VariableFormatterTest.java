@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.core.adapter.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microsoft.java.debug.core.adapter.BaseJdiTestCase;
+import com.microsoft.java.debug.core.adapter.formatter.IValueFormatter;
+import com.microsoft.java.debug.core.adapter.formatter.NumericFormatter;
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.Type;
+import com.sun.jdi.Value;
+
+public class VariableFormatterTest extends BaseJdiTestCase {
+    private VariableFormatter formatter;
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        formatter = (VariableFormatter) VariableFormatterFactory.createVariableFormatter();
+    }
+
+    @Test
+    public void testRegisterInvalidatesCache() throws Exception {
+        Value value = ((ArrayReference) this.getLocalValue("intarray")).getValue(0);
+        Map<String, Object> options = formatter.getDefaultOptions();
+        assertEquals("Should format with the numeric formatter.", "1", formatter.valueToString(value, options));
+
+        formatter.registerValueFormatter(new IValueFormatter() {
+            @Override
+            public String toString(Object value, Map<String, Object> options) {
+                return "custom";
+            }
+
+            @Override
+            public boolean acceptType(Type type, Map<String, Object> options) {
+                return true;
+            }
+
+            @Override
+            public Value valueOf(String value, Type type, Map<String, Object> options) {
+                return null;
+            }
+        }, 3);
+        assertEquals("Should select the new formatter with higher priority.", "custom", formatter.valueToString(value, options));
+    }
+
+    @Test
+    public void testDefaultOptions() throws Exception {
+        Map<String, Object> options = formatter.getDefaultOptions();
+        options.put("custom", true);
+        assertFalse("Should not leak the changes of the returned options.", formatter.getDefaultOptions().containsKey("custom"));
+    }
+
+    @Test
+    public void testValueToStringMatchesSelectedFormatter() throws Exception {
+        List<Value> values = ((ArrayReference) this.getLocalValue("intarray")).getValues();
+        Map<String, Object> options = formatter.getDefaultOptions();
+        NumericFormatter numericFormatter = new NumericFormatter();
+        for (Value value : values) {
+            assertEquals("Should format the same as the selected formatter.", numericFormatter.toString(value, options),
+                formatter.valueToString(value, options));
+        }
+    }
+}
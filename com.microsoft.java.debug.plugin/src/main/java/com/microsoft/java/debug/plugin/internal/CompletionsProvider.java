@@ -12,8 +12,10 @@
 package com.microsoft.java.debug.plugin.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,22 +24,40 @@ import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 
 import com.microsoft.java.debug.core.Configuration;
 import com.microsoft.java.debug.core.DebugException;
+import com.microsoft.java.debug.core.StackFrameUtility;
 import com.microsoft.java.debug.core.adapter.ICompletionsProvider;
 import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
 import com.microsoft.java.debug.core.adapter.ISourceLookUpProvider;
+import com.microsoft.java.debug.core.adapter.LRUCache;
 import com.microsoft.java.debug.core.protocol.Types.CompletionItem;
+import com.sun.jdi.Location;
+import com.sun.jdi.ReferenceType;
 import com.sun.jdi.StackFrame;
 
 public class CompletionsProvider implements ICompletionsProvider {
 
     private static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
+    private static final int TYPE_CACHE_SIZE = 32;
 
     private IDebugAdapterContext context;
 
+    /**
+     * The resolved declaring types of the frames, finding the project of a frame walks all the source containers.
+     * They're keyed by the loaded class rather than its name, the classes of the same name loaded by different
+     * class loaders may come from different projects.
+     */
+    private Map<ReferenceType, IType> resolvedTypes = Collections.synchronizedMap(new LRUCache<>(TYPE_CACHE_SIZE));
+
+    /**
+     * The session of the last completion request, the debug console asks for the completions on every keystroke.
+     */
+    private volatile CompletionSession lastSession;
+
     @Override
     public void initialize(IDebugAdapterContext context, Map<String, Object> options) {
         this.context = context;
@@ -46,6 +66,17 @@ public class CompletionsProvider implements ICompletionsProvider {
     @Override
     public List<CompletionItem> codeComplete(StackFrame frame, String snippet, int line, int column) {
         List<CompletionItem> res = new ArrayList<CompletionItem>();
+        int position = getInsertPosition(snippet, line, column);
+        long threadId = frame.thread().uniqueID();
+        long epoch = context.getVariablesCache().getSuspendEpoch(threadId);
+        Location location = frame.location();
+        CompletionSession session = lastSession;
+        if (session != null && session.canNarrow(threadId, epoch, location, snippet, position)) {
+            // More characters are typed at the same position, narrow the previous proposals instead of completing again.
+            session = session.narrow(snippet, position);
+            lastSession = session;
+            return new ArrayList<>(session.items);
+        }
 
         try {
             IType type = resolveType(frame);
@@ -69,7 +100,6 @@ public class CompletionsProvider implements ICompletionsProvider {
 
                 collector.setAllowsRequiredProposals(CompletionProposal.TYPE_REF, CompletionProposal.TYPE_REF, true);
 
-                int position = getInsertPosition(snippet, line, column);
                 type.codeComplete(snippet.toCharArray(), offset, position, null, null, null, frame.location().method().isStatic(), collector);
 
                 List<org.eclipse.lsp4j.CompletionItem> items = collector.getCompletionItems();
@@ -81,6 +111,7 @@ public class CompletionsProvider implements ICompletionsProvider {
                 }
             }
 
+            lastSession = new CompletionSession(threadId, epoch, location, snippet, position, res);
         } catch (DebugException | CoreException e) {
             logger.log(Level.SEVERE, String.format("Failed to code complete because of %s", e.toString()), e);
         }
@@ -102,9 +133,20 @@ public class CompletionsProvider implements ICompletionsProvider {
     private IType resolveType(StackFrame frame) throws CoreException, DebugException {
         ISourceLookUpProvider sourceProvider = context.getProvider(ISourceLookUpProvider.class);
         if (sourceProvider instanceof JdtSourceLookUpProvider) {
+            ReferenceType declaringType = StackFrameUtility.getDeclaringType(frame);
+            IType type = resolvedTypes.get(declaringType);
+            if (type != null && type.exists()) {
+                return type;
+            }
+
+            String typeName = JdtUtils.getDeclaringTypeName(frame);
             IJavaProject project = JdtUtils.findProject(frame, ((JdtSourceLookUpProvider) sourceProvider).getSourceContainers());
             if (project != null) {
-                return project.findType(JdtUtils.getDeclaringTypeName(frame));
+                type = project.findType(typeName);
+                if (type != null) {
+                    resolvedTypes.put(declaringType, type);
+                }
+                return type;
             }
         }
         return null;
@@ -122,4 +164,69 @@ public class CompletionsProvider implements ICompletionsProvider {
 
         return item;
     }
+
+    /**
+     * The proposals computed at a position of the snippet in a suspended frame. When the user keeps typing an
+     * identifier at that position, the proposals matching the longer prefix are a subset of the previous ones.
+     */
+    private static final class CompletionSession {
+        private final long threadId;
+        private final long epoch;
+        private final Location location;
+        private final String snippet;
+        private final int position;
+        private final String prefix;
+        private final List<CompletionItem> items;
+
+        private CompletionSession(long threadId, long epoch, Location location, String snippet, int position, List<CompletionItem> items) {
+            this.threadId = threadId;
+            this.epoch = epoch;
+            this.location = location;
+            this.snippet = snippet;
+            this.position = position;
+            this.prefix = getIdentifierPrefix(snippet, position);
+            this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        }
+
+        private boolean canNarrow(long threadId, long epoch, Location location, String snippet, int position) {
+            // Without a prefix the type proposals are not computed, they can't be narrowed from the previous proposals.
+            if (this.threadId != threadId || this.epoch != epoch || !Objects.equals(this.location, location)
+                || prefix.isEmpty() || position <= this.position || position > snippet.length() || this.position > this.snippet.length()) {
+                return false;
+            }
+
+            String typed = snippet.substring(this.position, position);
+            return snippet.startsWith(this.snippet.substring(0, this.position))
+                && snippet.substring(position).equals(this.snippet.substring(this.position))
+                && typed.chars().allMatch(Character::isJavaIdentifierPart);
+        }
+
+        private CompletionSession narrow(String snippet, int position) {
+            char[] newPrefix = getIdentifierPrefix(snippet, position).toCharArray();
+            List<CompletionItem> narrowed = new ArrayList<>();
+            for (CompletionItem item : items) {
+                char[] name = getLeadingIdentifier(item.label).toCharArray();
+                if (CharOperation.prefixEquals(newPrefix, name, false) || CharOperation.camelCaseMatch(newPrefix, name)) {
+                    narrowed.add(item);
+                }
+            }
+            return new CompletionSession(threadId, epoch, location, snippet, position, narrowed);
+        }
+
+        private static String getLeadingIdentifier(String label) {
+            int end = 0;
+            while (end < label.length() && Character.isJavaIdentifierPart(label.charAt(end))) {
+                end++;
+            }
+            return label.substring(0, end);
+        }
+
+        private static String getIdentifierPrefix(String text, int position) {
+            int start = Math.min(position, text.length());
+            while (start > 0 && Character.isJavaIdentifierPart(text.charAt(start - 1))) {
+                start--;
+            }
+            return text.substring(start, Math.min(position, text.length()));
+        }
+    }
 }
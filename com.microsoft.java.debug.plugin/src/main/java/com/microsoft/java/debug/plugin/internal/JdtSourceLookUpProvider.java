@@ -15,9 +15,12 @@ import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,12 +31,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.resources.IFile;
@@ -65,6 +70,7 @@ import org.eclipse.jdt.internal.core.JarPackageFragmentRoot;
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.LibraryLocation;
+import org.eclipse.jdt.launching.sourcelookup.containers.JavaProjectSourceContainer;
 import org.eclipse.jdt.ls.core.internal.DecompilerResult;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -82,6 +88,7 @@ import com.microsoft.java.debug.core.adapter.AdapterUtils;
 import com.microsoft.java.debug.core.adapter.Constants;
 import com.microsoft.java.debug.core.adapter.IDebugAdapterContext;
 import com.microsoft.java.debug.core.adapter.ISourceLookUpProvider;
+import com.microsoft.java.debug.core.adapter.LRUCache;
 import com.microsoft.java.debug.core.protocol.Types.BreakpointLocation;
 import com.microsoft.java.debug.core.protocol.Types.SourceBreakpoint;
 
@@ -89,14 +96,28 @@ public class JdtSourceLookUpProvider implements ISourceLookUpProvider {
     private static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
     private static final String JDT_SCHEME = "jdt";
     private static final String PATH_SEPARATOR = "/";
+    private static final int METHOD_INVOCATIONS_CACHE_SIZE = 32;
+    private static final int AST_CACHE_SIZE = 8;
     private static final Set<String> IMPLICITLY_DECLARED_CLASSES = new HashSet<>(
         Arrays.asList("org.eclipse.jdt.core.dom.UnnamedClass",
             "org.eclipse.jdt.core.dom.ImplicitTypeDeclaration"));
     private ISourceContainer[] sourceContainers = null;
+    private String sourceContainersKey = null;
 
     private HashMap<String, Object> options = new HashMap<String, Object>();
     private String latestJavaVersion = null;
     private int latestASTLevel;
+    /**
+     * The resolved step-in targets keyed by (uri, source version, line).
+     */
+    private final Map<String, CompletableFuture<List<MethodInvocation>>> methodInvocationsCache =
+            Collections.synchronizedMap(new LRUCache<>(METHOD_INVOCATIONS_CACHE_SIZE));
+    /**
+     * The parsed compilation units keyed by (uri, source version). The ASTs with bindings are large, so they're
+     * softly referenced and released first under memory pressure.
+     */
+    private final Map<String, SoftReference<CompilationUnit>> astCache =
+            Collections.synchronizedMap(new LRUCache<>(AST_CACHE_SIZE));
 
     public JdtSourceLookUpProvider() {
         // Get the latest supported Java version by JDT tooling.
@@ -174,81 +195,84 @@ public class JdtSourceLookUpProvider implements ISourceLookUpProvider {
             return new JavaBreakpointLocation[0];
         }
 
-        CompilationUnit astUnit = asCompilationUnit(sourceUri);
+        CompilationUnit astUnit = getCompilationUnit(sourceUri);
         JavaBreakpointLocation[] sourceLocations = Stream.of(sourceBreakpoints)
                 .map(sourceBreakpoint -> new JavaBreakpointLocation(sourceBreakpoint.line, sourceBreakpoint.column))
                 .toArray(JavaBreakpointLocation[]::new);
         if (astUnit != null) {
-            List<?> types = astUnit.types();
-            String unnamedClass = null;
-            // See https://github.com/eclipse-jdt/eclipse.jdt.core/pull/2220
-            // Given that the JDT plans to rename UnamedClass to ImplicitTypeDeclaration, we will check
-            // the class name of the ASTNode to prevent the potential breaking in the future.
-            if (types.size() == 1 && IMPLICITLY_DECLARED_CLASSES.contains(types.get(0).getClass().getName())) {
-                unnamedClass = inferPrimaryTypeName(sourceUri, astUnit);
-            }
-            Map<Integer, BreakpointLocation[]> resolvedLocations = new HashMap<>();
-            for (JavaBreakpointLocation sourceLocation : sourceLocations) {
-                int sourceLine = sourceLocation.lineNumber();
-                int sourceColumn = sourceLocation.columnNumber();
-                if (sourceColumn > -1) {
-                    // if we have a column, try to find the lambda expression at that column
-                    LambdaExpressionLocator lambdaExpressionLocator = new LambdaExpressionLocator(astUnit,
-                            sourceLine, sourceColumn);
-                    astUnit.accept(lambdaExpressionLocator);
-                    if (lambdaExpressionLocator.isFound()) {
-                        sourceLocation.setClassName(lambdaExpressionLocator.getFullyQualifiedTypeName());
-                        sourceLocation.setMethodName(lambdaExpressionLocator.getMethodName());
-                        sourceLocation.setMethodSignature(lambdaExpressionLocator.getMethodSignature());
-                    }
+            // The cached AST is shared by the concurrent requests, and the DOM ASTs are not thread-safe.
+            synchronized (astUnit) {
+                List<?> types = astUnit.types();
+                String unnamedClass = null;
+                // See https://github.com/eclipse-jdt/eclipse.jdt.core/pull/2220
+                // Given that the JDT plans to rename UnamedClass to ImplicitTypeDeclaration, we will check
+                // the class name of the ASTNode to prevent the potential breaking in the future.
+                if (types.size() == 1 && IMPLICITLY_DECLARED_CLASSES.contains(types.get(0).getClass().getName())) {
+                    unnamedClass = inferPrimaryTypeName(sourceUri, astUnit);
+                }
+                Map<Integer, BreakpointLocation[]> resolvedLocations = new HashMap<>();
+                for (JavaBreakpointLocation sourceLocation : sourceLocations) {
+                    int sourceLine = sourceLocation.lineNumber();
+                    int sourceColumn = sourceLocation.columnNumber();
+                    if (sourceColumn > -1) {
+                        // if we have a column, try to find the lambda expression at that column
+                        LambdaExpressionLocator lambdaExpressionLocator = new LambdaExpressionLocator(astUnit,
+                                sourceLine, sourceColumn);
+                        astUnit.accept(lambdaExpressionLocator);
+                        if (lambdaExpressionLocator.isFound()) {
+                            sourceLocation.setClassName(lambdaExpressionLocator.getFullyQualifiedTypeName());
+                            sourceLocation.setMethodName(lambdaExpressionLocator.getMethodName());
+                            sourceLocation.setMethodSignature(lambdaExpressionLocator.getMethodSignature());
+                        }
 
-                    if (resolvedLocations.containsKey(sourceLine)) {
-                        sourceLocation.setAvailableBreakpointLocations(resolvedLocations.get(sourceLine));
-                    } else {
-                        BreakpointLocation[] inlineLocations = getInlineBreakpointLocations(astUnit, sourceLine);
-                        sourceLocation.setAvailableBreakpointLocations(inlineLocations);
-                        resolvedLocations.put(sourceLine, inlineLocations);
-                    }
+                        if (resolvedLocations.containsKey(sourceLine)) {
+                            sourceLocation.setAvailableBreakpointLocations(resolvedLocations.get(sourceLine));
+                        } else {
+                            BreakpointLocation[] inlineLocations = getInlineBreakpointLocations(astUnit, sourceLine);
+                            sourceLocation.setAvailableBreakpointLocations(inlineLocations);
+                            resolvedLocations.put(sourceLine, inlineLocations);
+                        }
 
-                    continue;
-                }
+                        continue;
+                    }
 
-                // TODO
-                // The ValidBreakpointLocationLocator will verify if the current line is a valid
-                // location or not.
-                // If so, it will return the fully qualified name of the class type that
-                // contains the current line.
-                // Otherwise, it will try to find a valid location from the next lines and
-                // return it's fully qualified name.
-                // In current stage, we don't support to move the invalid breakpoint down to the
-                // next valid location, and just
-                // mark it as "unverified".
-                // In future, we could consider supporting to update the breakpoint to a valid
-                // location.
-
-                // passing the offset to the constructor, it can recognize the multiline lambda
-                // expression well
-                BreakpointLocationLocator locator = new BreakpointLocationLocator(astUnit,
-                        sourceLine, true, true, astUnit.getPosition(sourceLine, 0), 0);
-                astUnit.accept(locator);
-                // When the final valid line location is same as the original line, that
-                // represents it's a valid breakpoint.
-                // Add location type check to avoid breakpoint on method/field which will never
-                // be hit in current implementation.
-                if (sourceLine == locator.getLineLocation()
-                        && locator.getLocationType() == BreakpointLocationLocator.LOCATION_LINE) {
-                    sourceLocation.setClassName(StringUtils.isBlank(unnamedClass) ? locator.getFullyQualifiedTypeName() : unnamedClass);
-                    if (resolvedLocations.containsKey(sourceLine)) {
-                        sourceLocation.setAvailableBreakpointLocations(resolvedLocations.get(sourceLine));
-                    } else {
-                        BreakpointLocation[] inlineLocations = getInlineBreakpointLocations(astUnit, sourceLine);
-                        sourceLocation.setAvailableBreakpointLocations(inlineLocations);
-                        resolvedLocations.put(sourceLine, inlineLocations);
+                    // TODO
+                    // The ValidBreakpointLocationLocator will verify if the current line is a valid
+                    // location or not.
+                    // If so, it will return the fully qualified name of the class type that
+                    // contains the current line.
+                    // Otherwise, it will try to find a valid location from the next lines and
+                    // return it's fully qualified name.
+                    // In current stage, we don't support to move the invalid breakpoint down to the
+                    // next valid location, and just
+                    // mark it as "unverified".
+                    // In future, we could consider supporting to update the breakpoint to a valid
+                    // location.
+
+                    // passing the offset to the constructor, it can recognize the multiline lambda
+                    // expression well
+                    BreakpointLocationLocator locator = new BreakpointLocationLocator(astUnit,
+                            sourceLine, true, true, astUnit.getPosition(sourceLine, 0), 0);
+                    astUnit.accept(locator);
+                    // When the final valid line location is same as the original line, that
+                    // represents it's a valid breakpoint.
+                    // Add location type check to avoid breakpoint on method/field which will never
+                    // be hit in current implementation.
+                    if (sourceLine == locator.getLineLocation()
+                            && locator.getLocationType() == BreakpointLocationLocator.LOCATION_LINE) {
+                        sourceLocation.setClassName(StringUtils.isBlank(unnamedClass) ? locator.getFullyQualifiedTypeName() : unnamedClass);
+                        if (resolvedLocations.containsKey(sourceLine)) {
+                            sourceLocation.setAvailableBreakpointLocations(resolvedLocations.get(sourceLine));
+                        } else {
+                            BreakpointLocation[] inlineLocations = getInlineBreakpointLocations(astUnit, sourceLine);
+                            sourceLocation.setAvailableBreakpointLocations(inlineLocations);
+                            resolvedLocations.put(sourceLine, inlineLocations);
+                        }
+                    } else if (locator.getLocationType() == BreakpointLocationLocator.LOCATION_METHOD) {
+                        sourceLocation.setClassName(StringUtils.isBlank(unnamedClass) ? locator.getFullyQualifiedTypeName() : unnamedClass);
+                        sourceLocation.setMethodName(locator.getMethodName());
+                        sourceLocation.setMethodSignature(locator.getMethodSignature());
                     }
-                } else if (locator.getLocationType() == BreakpointLocationLocator.LOCATION_METHOD) {
-                    sourceLocation.setClassName(StringUtils.isBlank(unnamedClass) ? locator.getFullyQualifiedTypeName() : unnamedClass);
-                    sourceLocation.setMethodName(locator.getMethodName());
-                    sourceLocation.setMethodSignature(locator.getMethodSignature());
                 }
             }
         }
@@ -302,6 +326,31 @@ public class JdtSourceLookUpProvider implements ISourceLookUpProvider {
         return locations.toArray(BreakpointLocation[]::new);
     }
 
+    /**
+     * Returns the parsed compilation unit of the source, it's parsed again only when the source contents change.
+     */
+    private CompilationUnit getCompilationUnit(String uri) {
+        String version = getSourceVersion(uri, null);
+        if (version == null) {
+            return asCompilationUnit(uri);
+        }
+
+        String key = uri + "#" + version;
+        SoftReference<CompilationUnit> reference = astCache.get(key);
+        CompilationUnit astUnit = reference == null ? null : reference.get();
+        if (astUnit == null) {
+            astUnit = asCompilationUnit(uri);
+            if (astUnit != null) {
+                synchronized (astCache) {
+                    // The older versions of the same source are never used again.
+                    astCache.keySet().removeIf(cachedKey -> cachedKey.startsWith(uri + "#"));
+                    astCache.put(key, new SoftReference<>(astUnit));
+                }
+            }
+        }
+        return astUnit;
+    }
+
     private CompilationUnit asCompilationUnit(String uri) {
         final ASTParser parser = ASTParser.newParser(this.latestASTLevel);
         parser.setResolveBindings(true);
@@ -395,10 +444,24 @@ public class JdtSourceLookUpProvider implements ISourceLookUpProvider {
             return null;
         }
 
-        Object sourceElement = JdtUtils.findSourceElement(sourcePath, getSourceContainers());
+        // The library sources are looked up from the persistent index first, searching the containers is expensive.
+        // The index is keyed by the ordered source containers, so an entry added to or moved ahead on the classpath
+        // starts over. A workspace source added later may shadow the library class as well, it's checked first.
+        ISourceContainer[] containers = getSourceContainers();
+        String containersKey = getSourceContainersKey();
+        SourceMappingIndex index = SourceMappingIndex.getInstance();
+        if (!hasWorkspaceSource(sourcePath, containers)) {
+            String indexedUri = index.lookup(containersKey, sourcePath);
+            if (indexedUri != null) {
+                return indexedUri;
+            }
+        }
+
+        Object sourceElement = JdtUtils.findSourceElement(sourcePath, containers);
         if (sourceElement instanceof IResource) {
             return getFileURI((IResource) sourceElement);
         } else if (sourceElement instanceof IClassFile) {
+            index.record(containersKey, sourcePath, (IClassFile) sourceElement);
             return getFileURI((IClassFile) sourceElement);
         }
         return null;
@@ -437,6 +500,30 @@ public class JdtSourceLookUpProvider implements ISourceLookUpProvider {
         return sourceContainers;
     }
 
+    /**
+     * Identifies the ordered source container list, which decides the source element a source path resolves to.
+     */
+    private synchronized String getSourceContainersKey() {
+        if (sourceContainersKey == null) {
+            StringBuilder containers = new StringBuilder();
+            for (ISourceContainer container : getSourceContainers()) {
+                containers.append(container.getType() == null ? "" : container.getType().getId())
+                    .append(':').append(container.getName()).append('\n');
+            }
+            byte[] contents = containers.toString().getBytes(StandardCharsets.UTF_8);
+            sourceContainersKey = contents.length + ":" + Long.toHexString(checksum(contents));
+        }
+
+        return sourceContainersKey;
+    }
+
+    private static boolean hasWorkspaceSource(String sourcePath, ISourceContainer[] containers) {
+        // The project containers only search the source folders, they're cheap compared to the library containers.
+        ISourceContainer[] projectContainers = Stream.of(containers)
+            .filter(container -> container instanceof JavaProjectSourceContainer).toArray(ISourceContainer[]::new);
+        return JdtUtils.findSourceElement(sourcePath, projectContainers) instanceof IResource;
+    }
+
     @Override
     public String getSourceContents(String uri) {
         if (uri == null) {
@@ -540,20 +627,87 @@ public class JdtSourceLookUpProvider implements ISourceLookUpProvider {
             return Collections.emptyList();
         }
 
-        boolean useCache = false;
         CompilationUnit cachedUnit = CoreASTProvider.getInstance().getCachedAST();
         if (cachedUnit != null) {
             ITypeRoot cachedElement = cachedUnit.getTypeRoot();
-            if (cachedElement != null && isSameURI(JDTUtils.toUri(cachedElement), uri)) {
-                useCache = true;
+            if (cachedElement == null || !isSameURI(JDTUtils.toUri(cachedElement), uri)) {
+                cachedUnit = null;
             }
         }
 
-        final CompilationUnit astUnit = useCache ? cachedUnit : asCompilationUnit(uri);
+        String version = getSourceVersion(uri, cachedUnit);
+        if (version == null) {
+            return resolveMethodInvocations(uri, line, cachedUnit);
+        }
+
+        // The stopped line is usually resolved in advance, so a concurrent request waits for it instead of parsing again.
+        String key = String.format("%s#%s#%d", uri, version, line);
+        CompletableFuture<List<MethodInvocation>> result = new CompletableFuture<>();
+        CompletableFuture<List<MethodInvocation>> existing = methodInvocationsCache.putIfAbsent(key, result);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            result.complete(Collections.unmodifiableList(resolveMethodInvocations(uri, line, cachedUnit)));
+        } catch (RuntimeException e) {
+            methodInvocationsCache.remove(key);
+            result.completeExceptionally(e);
+            throw e;
+        }
+        return result.join();
+    }
+
+    /**
+     * Returns the version of the source contents which the ASTs and the method invocations are resolved from,
+     * or <code>null</code> if the contents can't be read, then the results are not cached.
+     */
+    private String getSourceVersion(String uri, CompilationUnit cachedUnit) {
+        if (cachedUnit != null) {
+            // The shared AST of the active editor is built from the unsaved contents of the editor buffer.
+            try {
+                IBuffer buffer = cachedUnit.getTypeRoot().getBuffer();
+                String contents = buffer == null ? null : buffer.getContents();
+                return contents == null ? null : "ast@" + contents.length() + ":" + checksum(contents.getBytes(StandardCharsets.UTF_8));
+            } catch (JavaModelException e) {
+                return null;
+            }
+        }
+
+        String filePath = AdapterUtils.toPath(uri);
+        if (filePath != null) {
+            Path path = Paths.get(filePath);
+            try {
+                // The modification time may not change for a quick edit, the contents are hashed as well.
+                return "file@" + Files.getLastModifiedTime(path).toMillis() + ":" + Files.size(path) + ":" + checksum(Files.readAllBytes(path));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        // The sources of the class files are not editable, but the decompiled sources are used only if enabled.
+        return DebugSettings.getCurrent().debugSupportOnDecompiledSource == Switch.ON ? "class+decompiled" : "class";
+    }
+
+    private static long checksum(byte[] contents) {
+        CRC32 checksum = new CRC32();
+        checksum.update(contents);
+        return checksum.getValue();
+    }
+
+    private List<MethodInvocation> resolveMethodInvocations(String uri, int line, CompilationUnit cachedUnit) {
+        final CompilationUnit astUnit = cachedUnit != null ? cachedUnit : getCompilationUnit(uri);
         if (astUnit == null) {
             return Collections.emptyList();
         }
 
+        // The cached AST is shared by the concurrent requests, and the DOM ASTs are not thread-safe.
+        synchronized (astUnit) {
+            return locateMethodInvocations(line, astUnit);
+        }
+    }
+
+    private List<MethodInvocation> locateMethodInvocations(int line, CompilationUnit astUnit) {
         MethodInvocationLocator locator = new MethodInvocationLocator(line, astUnit);
         astUnit.accept(locator);
 
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+
+import com.microsoft.java.debug.core.Configuration;
+import com.microsoft.java.debug.core.adapter.LRUCache;
+
+/**
+ * A persistent index of the library sources resolved by the source lookup, shared by the debug sessions.
+ * Each entry maps a (source container list, source path) to the class file it was resolved to, together with the
+ * fingerprint of the classpath entry containing it. An entry is only served while its classpath entry is unchanged, so a
+ * changed jar invalidates just its own entries. The index is stored in the state location of the plugin.
+ */
+final class SourceMappingIndex {
+    private static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
+    private static final String INDEX_FILE = "sourceMappingIndex.properties";
+    private static final int MAX_ENTRIES = 10000;
+    private static final long SAVE_DELAY_SECONDS = 5;
+    private static final char SEPARATOR = '|';
+
+    private static SourceMappingIndex instance;
+
+    private final Path indexFile;
+    private final Map<String, String> entries = new LRUCache<>(MAX_ENTRIES);
+    private final AtomicBoolean saveScheduled = new AtomicBoolean(false);
+
+    private SourceMappingIndex(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    static synchronized SourceMappingIndex getInstance() {
+        if (instance == null) {
+            instance = new SourceMappingIndex(getIndexFile());
+            instance.load();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the uri of the indexed class file, or <code>null</code> if it's not indexed or its classpath entry changed.
+     */
+    String lookup(String containersKey, String sourcePath) {
+        String key = toKey(containersKey, sourcePath);
+        String value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value == null) {
+            return null;
+        }
+
+        int separator = value.lastIndexOf(SEPARATOR);
+        IJavaElement element = separator < 0 ? null : JavaCore.create(value.substring(0, separator));
+        if (element instanceof IClassFile && element.exists()
+            && value.substring(separator + 1).equals(getFingerprint((IClassFile) element))) {
+            return JDTUtils.toUri((IClassFile) element);
+        }
+
+        synchronized (entries) {
+            entries.remove(key);
+        }
+        scheduleSave();
+        return null;
+    }
+
+    void record(String containersKey, String sourcePath, IClassFile classFile) {
+        String fingerprint = getFingerprint(classFile);
+        if (fingerprint == null) {
+            return;
+        }
+
+        String value = classFile.getHandleIdentifier() + SEPARATOR + fingerprint;
+        String previous;
+        synchronized (entries) {
+            previous = entries.put(toKey(containersKey, sourcePath), value);
+        }
+        if (!value.equals(previous)) {
+            scheduleSave();
+        }
+    }
+
+    private static String toKey(String containersKey, String sourcePath) {
+        // The ordered source containers decide which classpath entry a source path resolves to.
+        return containersKey + SEPARATOR + sourcePath;
+    }
+
+    /**
+     * Identifies the contents of the classpath entry by its location, modification time and size.
+     */
+    private static String getFingerprint(IClassFile classFile) {
+        IPackageFragmentRoot root = (IPackageFragmentRoot) classFile.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+        if (root == null) {
+            return null;
+        }
+
+        IPath location = root.getResource() != null ? root.getResource().getLocation() : root.getPath();
+        if (location == null) {
+            return null;
+        }
+
+        File file = location.toFile();
+        return location.toPortableString() + "@" + file.lastModified() + ":" + file.length();
+    }
+
+    private void scheduleSave() {
+        if (indexFile != null && saveScheduled.compareAndSet(false, true)) {
+            // The lookups come in bursts when the stack traces are shown, write them out together.
+            CompletableFuture.delayedExecutor(SAVE_DELAY_SECONDS, TimeUnit.SECONDS).execute(() -> {
+                saveScheduled.set(false);
+                save();
+            });
+        }
+    }
+
+    private void load() {
+        if (indexFile == null || !Files.isRegularFile(indexFile)) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(indexFile)) {
+            properties.load(input);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.log(Level.WARNING, String.format("Failed to load the source mapping index: %s", e.toString()), e);
+            return;
+        }
+
+        synchronized (entries) {
+            for (String key : properties.stringPropertyNames()) {
+                entries.put(key, properties.getProperty(key));
+            }
+        }
+    }
+
+    private void save() {
+        Properties properties = new Properties();
+        synchronized (entries) {
+            properties.putAll(entries);
+        }
+
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Path tempFile = Files.createTempFile(indexFile.getParent(), INDEX_FILE, ".tmp");
+            try (OutputStream output = Files.newOutputStream(tempFile)) {
+                properties.store(output, null);
+            }
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, String.format("Failed to save the source mapping index: %s", e.toString()), e);
+        }
+    }
+
+    private static Path getIndexFile() {
+        if (JavaDebuggerServerPlugin.context == null) {
+            return null;
+        }
+
+        try {
+            IPath stateLocation = Platform.getStateLocation(JavaDebuggerServerPlugin.context.getBundle());
+            return stateLocation.append(INDEX_FILE).toFile().toPath();
+        } catch (IllegalStateException e) {
+            // The instance location is not set.
+            return null;
+        }
+    }
+}
@@ -20,6 +20,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -54,6 +59,7 @@ import org.eclipse.jdt.internal.debug.eval.ast.engine.ASTEvaluationEngine;
 import org.eclipse.jdt.internal.launching.JavaSourceLookupDirector;
 
 import com.microsoft.java.debug.core.Configuration;
+import com.microsoft.java.debug.core.DebugSettings;
 import com.microsoft.java.debug.core.IEvaluatableBreakpoint;
 import com.microsoft.java.debug.core.adapter.AdapterUtils;
 import com.microsoft.java.debug.core.adapter.Constants;
@@ -63,18 +69,32 @@ import com.microsoft.java.debug.core.adapter.IEvaluationProvider;
 import com.microsoft.java.debug.core.adapter.ISourceLookUpProvider;
 import com.microsoft.java.debug.plugin.internal.JdtSourceLookUpProvider;
 import com.microsoft.java.debug.plugin.internal.JdtUtils;
+import com.sun.jdi.ObjectCollectedException;
 import com.sun.jdi.ObjectReference;
 import com.sun.jdi.StackFrame;
 import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VMDisconnectedException;
 import com.sun.jdi.Value;
 import com.sun.jdi.VirtualMachine;
 
 public class JdtEvaluationProvider implements IEvaluationProvider {
     private static final Logger logger = Logger.getLogger(Configuration.LOGGER_NAME);
+    /**
+     * Runs the evaluations and their timeouts. The requests block on the evaluation results from the common pool,
+     * so the evaluations must not depend on it to make progress.
+     */
+    private static final ExecutorService evaluationThreadPool = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Java Debug Evaluation");
+        thread.setDaemon(true);
+        return thread;
+    });
     private IJavaProject project;
     private ILaunch launch;
     private JDIDebugTarget debugTarget;
     private Map<ThreadReference, JDIThread> threadMap = new HashMap<>();
+    // The last queued evaluation of each thread, and the evaluation of each thread which timed out but is still running.
+    private final Map<ThreadReference, CompletableFuture<Value>> lastEvaluations = new HashMap<>();
+    private final Map<ThreadReference, CompletableFuture<Value>> abandonedEvaluations = new HashMap<>();
     private HashMap<String, Object> options = new HashMap<>();
     private IDebugAdapterContext context;
 
@@ -82,6 +102,12 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
 
     private Set<String> visitedClassNames = new HashSet<>();
 
+    /**
+     * The evaluation engine is created together with the debug target and reused by all the evaluations,
+     * the project of the debug target is resolved only once.
+     */
+    private ASTEvaluationEngine evaluationEngine;
+
     public JdtEvaluationProvider() {
     }
 
@@ -116,6 +142,44 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
         return evaluate(expression, thread, depth, null);
     }
 
+    @Override
+    public List<CompletableFuture<Value>> evaluate(List<String> expressions, ThreadReference thread, int depth) {
+        List<CompletableFuture<Value>> completableFutures = new ArrayList<>();
+        JDIStackFrame stackframe;
+        ASTEvaluationEngine engine;
+        try {
+            String typeName = thread.frame(depth).location().method().declaringType().name();
+            ensureDebugTarget(thread.virtualMachine(), typeName);
+            stackframe = createStackFrame(getMockJDIThread(thread), depth);
+            if (stackframe == null) {
+                throw new IllegalStateException("Cannot evaluate because the stackframe is not available.");
+            }
+            engine = getEvaluationEngine();
+        } catch (Exception ex) {
+            for (int i = 0; i < expressions.size(); i++) {
+                completableFutures.add(CompletableFuture.failedFuture(ex));
+            }
+            return completableFutures;
+        }
+
+        // All the expressions share the resolved stack frame, the evaluations are queued to the thread and run one after another.
+        for (String expression : expressions) {
+            completableFutures.add(schedule(thread, completableFuture -> {
+                try {
+                    ICompiledExpression compiledExpression = engine.getCompiledExpression(expression, stackframe);
+                    if (compiledExpression.hasErrors()) {
+                        completableFuture.completeExceptionally(createCompileErrorException(compiledExpression));
+                    } else {
+                        internalEvaluate(engine, compiledExpression, stackframe, completableFuture);
+                    }
+                } catch (Exception ex) {
+                    completableFuture.completeExceptionally(ex);
+                }
+            }));
+        }
+        return completableFutures;
+    }
+
     @Override
     public CompletableFuture<Value> evaluate(String expression, ObjectReference thisContext, ThreadReference thread) {
         CompletableFuture<Value> completableFuture = new CompletableFuture<>();
@@ -123,10 +187,9 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
             ensureDebugTarget(thisContext.virtualMachine(), thisContext.type().name());
             JDIThread jdiThread = getMockJDIThread(thread);
             JDIObjectValue jdiObject = new JDIObjectValue(debugTarget, thisContext);
-            ASTEvaluationEngine engine = new ASTEvaluationEngine(project, debugTarget);
+            ASTEvaluationEngine engine = getEvaluationEngine();
             ICompiledExpression compiledExpression = engine.getCompiledExpression(expression, jdiObject);
-            internalEvaluate(engine, compiledExpression, jdiObject, jdiThread, completableFuture);
-            return completableFuture;
+            return schedule(thread, evaluation -> internalEvaluate(engine, compiledExpression, jdiObject, jdiThread, evaluation));
         } catch (Exception ex) {
             completableFuture.completeExceptionally(ex);
             return completableFuture;
@@ -146,7 +209,7 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
             }
 
             ICompiledExpression compiledExpression = null;
-            ASTEvaluationEngine engine = new ASTEvaluationEngine(project, debugTarget);
+            ASTEvaluationEngine engine = getEvaluationEngine();
             boolean newExpression = false;
             if (breakpoint != null) {
                 long threadId = thread.uniqueID();
@@ -173,14 +236,11 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
                     }
                     return completableFuture;
                 }
-                completableFuture.completeExceptionally(AdapterUtils.createUserErrorDebugException(
-                        String.format("Cannot evaluate because of compilation error(s): %s.",
-                                StringUtils.join(compiledExpression.getErrorMessages(), "\n")),
-                        ErrorCode.EVALUATION_COMPILE_ERROR));
+                completableFuture.completeExceptionally(createCompileErrorException(compiledExpression));
                 return completableFuture;
             }
-            internalEvaluate(engine, compiledExpression, stackframe, completableFuture);
-            return completableFuture;
+            ICompiledExpression validExpression = compiledExpression;
+            return schedule(thread, evaluation -> internalEvaluate(engine, validExpression, stackframe, evaluation));
         } catch (Exception ex) {
             completableFuture.completeExceptionally(ex);
             return completableFuture;
@@ -190,28 +250,132 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
     @Override
     public CompletableFuture<Value> invokeMethod(ObjectReference thisContext, String methodName, String methodSignature,
             Value[] args, ThreadReference thread, boolean invokeSuper) {
-        CompletableFuture<Value> completableFuture = new CompletableFuture<>();
-        try  {
-            ensureDebugTarget(thisContext.virtualMachine(), thisContext.type().name());
-            JDIThread jdiThread = getMockJDIThread(thread);
-            JDIObjectValue jdiObject = new JDIObjectValue(debugTarget, thisContext);
-            List<IJavaValue> arguments = null;
-            if (args == null) {
-                arguments = Collections.EMPTY_LIST;
-            } else {
-                arguments = new ArrayList<>(args.length);
-                for (Value arg : args) {
-                    arguments.add(new JDIValue(debugTarget, arg));
+        // The invocation blocks until the method returns, run it in the background so that the timeout can be applied.
+        return schedule(thread, completableFuture -> evaluationThreadPool.execute(() -> {
+            try  {
+                ensureDebugTarget(thisContext.virtualMachine(), thisContext.type().name());
+                JDIThread jdiThread = getMockJDIThread(thread);
+                JDIObjectValue jdiObject = new JDIObjectValue(debugTarget, thisContext);
+                List<IJavaValue> arguments = null;
+                if (args == null) {
+                    arguments = Collections.EMPTY_LIST;
+                } else {
+                    arguments = new ArrayList<>(args.length);
+                    for (Value arg : args) {
+                        arguments.add(new JDIValue(debugTarget, arg));
+                    }
                 }
+                IJavaValue javaValue = jdiObject.sendMessage(methodName, methodSignature, arguments.toArray(new IJavaValue[0]), jdiThread, invokeSuper);
+                // we need to read fValue from the result Value instance implements by JDT
+                completableFuture.complete((Value) FieldUtils.readField(javaValue, "fValue", true));
+            } catch (Exception ex) {
+                completableFuture.completeExceptionally(ex);
             }
-            IJavaValue javaValue = jdiObject.sendMessage(methodName, methodSignature, arguments.toArray(new IJavaValue[0]), jdiThread, invokeSuper);
-            // we need to read fValue from the result Value instance implements by JDT
-            Value value = (Value) FieldUtils.readField(javaValue, "fValue", true);
-            completableFuture.complete(value);
-            return completableFuture;
+        }));
+    }
+
+    /**
+     * Runs the evaluations on the same thread one after another, each one starts once the previous one completes,
+     * so the evaluation timeout counts from when the evaluation really starts rather than from when it's queued.
+     *
+     * @param thread the thread to run the evaluation
+     * @param evaluation starts the evaluation and completes the given future with its result
+     * @return the evaluation result future
+     */
+    private CompletableFuture<Value> schedule(ThreadReference thread, Consumer<CompletableFuture<Value>> evaluation) {
+        CompletableFuture<Value> result = new CompletableFuture<>();
+        CompletableFuture<Value> previous;
+        synchronized (lastEvaluations) {
+            previous = lastEvaluations.getOrDefault(thread, CompletableFuture.completedFuture(null));
+            lastEvaluations.put(thread, result);
+        }
+
+        // Start it from the pool rather than from the completion callback of the previous evaluation.
+        previous.whenCompleteAsync((value, error) -> start(thread, evaluation, result), evaluationThreadPool);
+        result.whenComplete((value, error) -> {
+            synchronized (lastEvaluations) {
+                lastEvaluations.remove(thread, result);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Starts the evaluation and fails it with a timeout error if it doesn't finish within the configured evaluation timeout.
+     * The JDI invocation can't be cancelled, so the target thread is interrupted to wake it up if it's blocked in wait(),
+     * sleep() or an interruptible I/O. An invocation busy in a loop or blocked on entering a monitor is not stopped by the
+     * interrupt, it's left to finish in the background. Until it returns, JDT keeps the thread marked as performing the
+     * evaluation, so the events raised by it are still ignored, and the evaluations queued to the thread fail immediately
+     * rather than wait behind it. The state is restored when the invocation returns or when the thread resumes.
+     */
+    private void start(ThreadReference thread, Consumer<CompletableFuture<Value>> evaluation, CompletableFuture<Value> result) {
+        CompletableFuture<Value> abandoned;
+        synchronized (lastEvaluations) {
+            abandoned = abandonedEvaluations.get(thread);
+        }
+        if (abandoned != null && !abandoned.isDone()) {
+            result.completeExceptionally(AdapterUtils.createUserErrorDebugException(
+                    "Cannot evaluate because the thread is still running an evaluation which timed out.",
+                    ErrorCode.EVALUATION_TIMEOUT));
+            return;
+        }
+
+        CompletableFuture<Value> running = new CompletableFuture<>();
+        running.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+
+        int timeout = DebugSettings.getCurrent().evaluationTimeout;
+        if (timeout > 0) {
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS, evaluationThreadPool).execute(() -> {
+                if (result.completeExceptionally(AdapterUtils.createUserErrorDebugException(
+                        String.format("Evaluation timed out after %d ms. The method invoked in the target is left to finish in the background.",
+                                timeout),
+                        ErrorCode.EVALUATION_TIMEOUT))) {
+                    abandonEvaluation(thread, running);
+                }
+            });
+        }
+
+        try {
+            evaluation.accept(running);
         } catch (Exception ex) {
-            completableFuture.completeExceptionally(ex);
-            return completableFuture;
+            running.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Interrupts the thread running the timed out evaluation, the evaluations of a thread run one after another,
+     * so the timed out evaluation is the one running on the thread.
+     */
+    private void abandonEvaluation(ThreadReference thread, CompletableFuture<Value> running) {
+        synchronized (lastEvaluations) {
+            abandonedEvaluations.put(thread, running);
+        }
+        running.whenComplete((value, error) -> {
+            synchronized (lastEvaluations) {
+                abandonedEvaluations.remove(thread, running);
+            }
+        });
+
+        JDIThread jdiThread;
+        synchronized (threadMap) {
+            jdiThread = threadMap.get(thread);
+        }
+
+        if (running.isDone() || jdiThread == null || !(jdiThread.isPerformingEvaluation() || jdiThread.isInvokingMethod())) {
+            return;
+        }
+
+        logger.warning(String.format("Evaluation on thread %d timed out, interrupting the invocation.", thread.uniqueID()));
+        try {
+            thread.interrupt();
+        } catch (VMDisconnectedException | ObjectCollectedException e) {
+            // ignore
         }
     }
 
@@ -324,6 +488,13 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
 
     }
 
+    private static Exception createCompileErrorException(ICompiledExpression compiledExpression) {
+        return AdapterUtils.createUserErrorDebugException(
+                String.format("Cannot evaluate because of compilation error(s): %s.",
+                        StringUtils.join(compiledExpression.getErrorMessages(), "\n")),
+                ErrorCode.EVALUATION_COMPILE_ERROR);
+    }
+
     private void internalEvaluate(ASTEvaluationEngine engine, ICompiledExpression compiledExpression,
             IJavaStackFrame stackframe, CompletableFuture<Value> completableFuture) {
         try  {
@@ -383,6 +554,11 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
         }
     }
 
+    @Override
+    public boolean isSideEffectFree(String expression) {
+        return SideEffectFreeExpressionChecker.isSideEffectFree(expression);
+    }
+
     @Override
     public boolean isInEvaluation(ThreadReference thread) {
         if (debugTarget == null) {
@@ -408,10 +584,21 @@ public class JdtEvaluationProvider implements IEvaluationProvider {
                     threadMap.remove(thread);
                 }
             }
+            synchronized (lastEvaluations) {
+                abandonedEvaluations.remove(thread);
+            }
         }
     }
 
-    private void ensureDebugTarget(VirtualMachine vm, String typeName) {
+    private synchronized ASTEvaluationEngine getEvaluationEngine() {
+        if (evaluationEngine == null) {
+            evaluationEngine = new ASTEvaluationEngine(project, debugTarget);
+        }
+
+        return evaluationEngine;
+    }
+
+    private synchronized void ensureDebugTarget(VirtualMachine vm, String typeName) {
         if (debugTarget == null) {
             if (project == null) {
                 String projectName = (String) options.get(Constants.PROJECT_NAME);
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Microsoft Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.microsoft.java.debug.plugin.internal.eval;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.ArrayAccess;
+import org.eclipse.jdt.core.dom.BooleanLiteral;
+import org.eclipse.jdt.core.dom.CharacterLiteral;
+import org.eclipse.jdt.core.dom.ConditionalExpression;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.NullLiteral;
+import org.eclipse.jdt.core.dom.NumberLiteral;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.eclipse.jdt.core.dom.ThisExpression;
+
+/**
+ * Checks from the syntax tree whether an expression only reads the local variables, the fields and the array
+ * elements. Any other node, e.g. a method invocation, an assignment or an object creation, makes it unsafe to reuse.
+ * A qualified name is rejected as well, without the bindings it can't be told from a static field of another class,
+ * whose first access may run the static initializer of the class.
+ */
+final class SideEffectFreeExpressionChecker extends ASTVisitor {
+    private boolean sideEffectFree = true;
+
+    private SideEffectFreeExpressionChecker() {
+    }
+
+    static boolean isSideEffectFree(String expression) {
+        ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+        parser.setKind(ASTParser.K_EXPRESSION);
+        parser.setSource(expression.toCharArray());
+        ASTNode node = parser.createAST(null);
+        if (!(node instanceof Expression)) {
+            // The expression has syntax errors.
+            return false;
+        }
+
+        SideEffectFreeExpressionChecker checker = new SideEffectFreeExpressionChecker();
+        node.accept(checker);
+        return checker.sideEffectFree;
+    }
+
+    @Override
+    public boolean preVisit2(ASTNode node) {
+        sideEffectFree = sideEffectFree && isReadOnly(node);
+        return sideEffectFree;
+    }
+
+    private static boolean isReadOnly(ASTNode node) {
+        if (node instanceof SimpleName || node instanceof FieldAccess
+            || node instanceof ThisExpression || node instanceof ArrayAccess || node instanceof ParenthesizedExpression
+            || node instanceof ConditionalExpression || node instanceof NumberLiteral || node instanceof BooleanLiteral
+            || node instanceof CharacterLiteral || node instanceof NullLiteral || node instanceof StringLiteral) {
+            return true;
+        } else if (node instanceof PrefixExpression) {
+            PrefixExpression.Operator operator = ((PrefixExpression) node).getOperator();
+            return operator != PrefixExpression.Operator.INCREMENT && operator != PrefixExpression.Operator.DECREMENT;
+        } else if (node instanceof InfixExpression) {
+            // The string concatenation invokes the toString() of the object operands.
+            return ((InfixExpression) node).getOperator() != InfixExpression.Operator.PLUS;
+        }
+        return false;
+    }
+}